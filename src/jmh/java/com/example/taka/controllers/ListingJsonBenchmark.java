@@ -0,0 +1,62 @@
+package com.example.taka.controllers;
+
+import com.example.taka.dto.ListingDtos;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/*
+ * Writing listing pages as the controllers return them: a Page (GET /api/requests, /filter, /search)
+ * and a CursorPage (GET /api/requests/feed), with an ObjectMapper configured like Boot's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListingJsonBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectWriter writer;
+    private Page<ListingDtos.ResponseToRequestDto> page;
+    private ListingDtos.CursorPage<ListingDtos.ResponseToRequestDto> cursorPage;
+
+    @Setup
+    public void setUp(){
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = mapper.writer();
+        List<ListingDtos.ResponseToRequestDto> rows = LongStream.rangeClosed(1, pageSize).mapToObj(ListingJsonBenchmark::dto).toList();
+        page = new PageImpl<>(rows, PageRequest.of(0, pageSize), 10_000);
+        cursorPage = new ListingDtos.CursorPage<>(rows, "MjAyNS0wMS0wMVQxMjowMHwxMjM=");
+    }
+
+    private static ListingDtos.ResponseToRequestDto dto(long id){
+        LocalDateTime created = LocalDateTime.of(2025, 1, 1, 12, 0).plusMinutes(id);
+        return new ListingDtos.ResponseToRequestDto(id, "Road bike " + id, "Looking for a used road bike in good condition",
+                null, new BigDecimal("350.00"), "bikes", "Kampala", created, created, "OPEN", "ALLOWED",
+                "owner" + id + "@taka.com", 3, new BigDecimal("300.00"), new BigDecimal("360.00"));
+    }
+
+    @Benchmark
+    public byte[] page() throws Exception{
+        return writer.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] cursorPage() throws Exception{
+        return writer.writeValueAsBytes(cursorPage);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.taka.security;
+
+import com.example.taka.models.UserProfile;
+import com.example.taka.models.UserRole;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Per-request cost of JwtAuthenticationFilter: a signed-in call with an already verified token
+ * (claims -> principal, no DB) and an anonymous call without Authorization header.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest signedIn;
+    private MockHttpServletRequest anonymous;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private Authentication authenticated;
+    private final FilterChain chain = (req, res) -> authenticated = SecurityContextHolder.getContext().getAuthentication();
+
+    @Setup
+    public void setUp(){
+        JwtUtil jwtUtil = JwtBenchmark.newJwtUtil();
+        //stateless mode: the user details service and the repository behind the registry are never called
+        filter = new JwtAuthenticationFilter(jwtUtil, null, new TokenVersionRegistry(null), new RevokedTokenRegistry(new SimpleMeterRegistry()));
+
+        UserProfile user = UserProfile.builder().id(42L).email("bench@taka.com").user_role(UserRole.USER).enabled(true).build();
+        signedIn = new MockHttpServletRequest("GET", "/api/requests/feed");
+        signedIn.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken(user));
+        anonymous = new MockHttpServletRequest("GET", "/api/requests/feed");
+    }
+
+    @Benchmark
+    public Authentication bearerToken() throws Exception{
+        try{
+            filter.doFilter(signedIn, response, chain);
+            return authenticated;
+        }finally{
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Benchmark
+    public Authentication noToken() throws Exception{
+        filter.doFilter(anonymous, response, chain);
+        return authenticated;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.taka.security;
+
+import com.example.taka.models.UserProfile;
+import com.example.taka.models.UserRole;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Issuing and reading access tokens. extractAllClaims is a full parse + HMAC check (a token the
+ * filter has not seen yet); verify is what a repeat caller costs once its token is cached.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private UserProfile user;
+    private String token;
+
+    @Setup
+    public void setUp(){
+        jwtUtil = newJwtUtil();
+        user = UserProfile.builder().id(42L).email("bench@taka.com").user_role(UserRole.USER).enabled(true).build();
+        token = jwtUtil.generateToken(user);
+        jwtUtil.verify(token);
+    }
+
+    //same settings as application.properties
+    static JwtUtil newJwtUtil(){
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secretKey", "0123456789ABCDEF0123456789ABCDEF0123456789ABCDEF");
+        ReflectionTestUtils.setField(jwtUtil, "expirationMs", 900_000L);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    @Benchmark
+    public String generateToken(){
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims extractAllClaims(){
+        return jwtUtil.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public VerifiedToken verifyCached(){
+        return jwtUtil.verify(token);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.taka.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * RateLimitFilter overhead: a limited route (bucket lookup among 1000 client addresses + acquire),
+ * a route without limit, and the bare bucket, alone and shared by 4 threads. Limits are set high
+ * enough that nothing is rejected.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+    private static final String UNLIMITED = "1000000000/1s";
+
+    private RateLimitFilter filter;
+    private final RateLimit limit = new RateLimit(1_000_000_000, Duration.ofSeconds(1));
+    private final AtomicLong sharedBucket = RateLimit.newBucket();
+    private final FilterChain chain = (req, res) -> {};
+
+    @State(Scope.Thread)
+    public static class Requests {
+        MockHttpServletRequest[] search = new MockHttpServletRequest[1000];
+        MockHttpServletRequest detail = new MockHttpServletRequest("GET", "/api/requests/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        int next;
+
+        @Setup
+        public void setUp(){
+            for(int i = 0; i < search.length; i++){
+                search[i] = new MockHttpServletRequest("GET", "/api/requests/search");
+                search[i].setRemoteAddr("10.0." + (i / 256) + "." + (i % 256));
+            }
+        }
+    }
+
+    @Setup
+    public void setUp(){
+        filter = new RateLimitFilter(true, UNLIMITED, UNLIMITED, UNLIMITED, 100_000,
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    @Benchmark
+    public void limitedRoute(Requests requests) throws Exception{
+        MockHttpServletRequest request = requests.search[requests.next++ % requests.search.length];
+        filter.doFilter(request, requests.response, chain);
+    }
+
+    @Benchmark
+    public void unlimitedRoute(Requests requests) throws Exception{
+        filter.doFilter(requests.detail, requests.response, chain);
+    }
+
+    @Benchmark
+    public long tryAcquire(){
+        return limit.tryAcquire(sharedBucket, System.nanoTime());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long tryAcquireContended(){
+        return limit.tryAcquire(sharedBucket, System.nanoTime());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.taka.services;
+
+import com.example.taka.dto.ListingDtos;
+import com.example.taka.models.Reply;
+import com.example.taka.models.Request;
+import com.example.taka.models.UserProfile;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/* entity -> response DTO mapping done for every request and reply written or read through JPA*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListingMappingBenchmark {
+
+    private ListingService listingService;
+    private Request request;
+    private Reply reply;
+
+    @Setup
+    public void setUp(){
+        //the mappers touch none of the service's collaborators
+        listingService = new ListingService(null, null, null, null, null, null, null, null, null, null);
+
+        UserProfile owner = UserProfile.builder().id(1L).email("owner@taka.com").build();
+        UserProfile replier = UserProfile.builder().id(2L).email("seller@taka.com").build();
+        request = Request.builder().id(10L).title("Road bike, 54cm").description("Looking for a used road bike in good condition")
+                .owner(owner).offerPrice(new BigDecimal("350.00")).category("bikes").location("Kampala").build();
+        reply = Reply.builder().id(20L).message("I have a 2019 model, barely used").price(new BigDecimal("320.00"))
+                .replier(replier).request(request).build();
+    }
+
+    @Benchmark
+    public ListingDtos.ResponseToRequestDto toRequestDto(){
+        return listingService.toRequestDto(request);
+    }
+
+    @Benchmark
+    public ListingDtos.ResponseToReplyDto toReplyDto(){
+        return listingService.toReplyDto(reply);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.taka.loadtest;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/*
+ * Fills the load-test database: users, requests (with coordinates) and replies, generated inside H2
+ * with INSERT ... SELECT over SYSTEM_RANGE in chunks, so 10M rows take minutes and no client memory.
+ * A database already holding the requested sizes is reused as is; otherwise it is wiped and rebuilt
+ * through the same Flyway migrations the app runs.
+ *
+ * Every user has the password PASSWORD; request ids are 1..requests, newest = highest id.
+ */
+final class DatasetSeeder {
+    static final String PASSWORD = "loadtest-password";
+    static final String EMAIL_DOMAIN = "@load.taka";
+    //what request titles/descriptions are made of, and so what Workload searches for
+    static final String[] ITEMS = {"road bike", "laptop", "sofa", "phone", "fridge", "camera", "guitar", "desk", "tent", "printer"};
+    static final String[] CATEGORIES = {"bikes", "electronics", "furniture", "phones", "appliances", "cameras", "music", "office", "outdoor", "electronics"};
+    static final String[] CONDITIONS = {"used", "new", "refurbished", "cheap", "sturdy", "vintage", "compact", "large"};
+    static final String[] LOCATIONS = {"Kampala", "Entebbe", "Jinja", "Mbarara", "Gulu", "Mbale", "Masaka", "Arua"};
+    private static final long CHUNK = 250_000;
+
+    private final String url;
+    private final LoadTest.Settings settings;
+
+    DatasetSeeder(Path db, LoadTest.Settings settings){
+        this.url = "jdbc:h2:file:" + db + ";DB_CLOSE_ON_EXIT=FALSE";
+        this.settings = settings;
+    }
+
+    void seedIfNeeded() throws SQLException{
+        try(Connection connection = DriverManager.getConnection(url, "sa", "");
+            Statement sql = connection.createStatement()){
+            if(matches(sql)){
+                log("reusing dataset: %,d users, %,d requests, %,d replies", settings.users(), settings.requests(), settings.replies());
+                return;
+            }
+            sql.execute("drop all objects");
+            Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration/h2").load().migrate();
+
+            long start = System.currentTimeMillis();
+            seedUsers(sql);
+            seedRequests(sql);
+            seedReplies(sql);
+            log("dataset ready in %,d s", (System.currentTimeMillis() - start) / 1000);
+        }
+    }
+
+    private boolean matches(Statement sql){
+        try{
+            return count(sql, "select count(*) from user_profile where email like '%" + EMAIL_DOMAIN + "'") == settings.users()
+                    && count(sql, "select count(*) from request") == settings.requests()
+                    && count(sql, "select count(*) from reply") == settings.replies();
+        }catch(SQLException ex){
+            //no schema yet
+            return false;
+        }
+    }
+
+    private static long count(Statement sql, String query) throws SQLException{
+        try(ResultSet rows = sql.executeQuery(query)){
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+
+    private void seedUsers(Statement sql) throws SQLException{
+        //one BCrypt hash for everybody, at the strength the app uses by default
+        String hash = new BCryptPasswordEncoder(10).encode(PASSWORD);
+        insertRange(sql, "users", settings.users(), (from, to) -> """
+                insert into user_profile (id, first_name, last_name, email, password_harsh, enabled, created_at, updated_at, user_role, token_version)
+                select x, 'Load', 'User', 'user' || x || '%s', '%s', true, current_timestamp, current_timestamp, 'USER', 0
+                from system_range(%d, %d)
+                """.formatted(EMAIL_DOMAIN, hash, from, to));
+        sql.execute("alter table user_profile alter column id restart with " + (settings.users() + 1));
+    }
+
+    private void seedRequests(Statement sql) throws SQLException{
+        String item = pick("mod(x, 10)", ITEMS);
+        String condition = pick("mod(x / 10, 8)", CONDITIONS);
+        String location = pick("mod(x / 7, 8)", LOCATIONS);
+        insertRange(sql, "requests", settings.requests(), (from, to) -> """
+                insert into request (id, title, description, owner_id, offer_price, category, location, created_at, updated_at,
+                                     status, content_status, latitude, longitude)
+                select x,
+                       'Wanted: ' || %2$s || ' ' || %1$s,
+                       'Looking for a ' || %2$s || ' ' || %1$s || ' around ' || %3$s || ', can pick up this week',
+                       mod(x * 7919, %5$d) + 1,
+                       mod(x * 37, 2000) + 10,
+                       %4$s,
+                       %3$s,
+                       dateadd('SECOND', x * 30, timestamp '2024-01-01 00:00:00'),
+                       dateadd('SECOND', x * 30, timestamp '2024-01-01 00:00:00'),
+                       case when mod(x, 5) = 0 then 'FULFILLED' else 'OPEN' end,
+                       'ALLOWED',
+                       0.10 + mod(x * 7919, 10000) / 20000.0,
+                       32.40 + mod(x * 104729, 10000) / 20000.0
+                from system_range(%6$d, %7$d)
+                """.formatted(item, condition, location, pick("mod(x, 10)", CATEGORIES), settings.users(), from, to));
+        //Hibernate hands out request ids in blocks of 50 from this sequence
+        sql.execute("alter sequence request_seq restart with " + (settings.requests() + 100));
+    }
+
+    private void seedReplies(Statement sql) throws SQLException{
+        //replies spread evenly over the requests, repliers over the users
+        insertRange(sql, "replies", settings.replies(), (from, to) -> """
+                insert into reply (id, replier_id, message, price, created_at, updated_at, content_status, request_id)
+                select x, mod(x * 31, %1$d) + 1, 'I can sell you one, message me', mod(x * 13, 20000) / 10.0 + 1,
+                       dateadd('SECOND', x * 3, timestamp '2024-01-01 00:00:00'),
+                       dateadd('SECOND', x * 3, timestamp '2024-01-01 00:00:00'),
+                       'ALLOWED', mod(x - 1, %2$d) + 1
+                from system_range(%3$d, %4$d)
+                """.formatted(settings.users(), settings.requests(), from, to));
+        sql.execute("alter table reply alter column id restart with " + (settings.replies() + 1));
+    }
+
+    private interface ChunkInsert {
+        String sql(long from, long to);
+    }
+
+    //one statement (and commit) per CHUNK rows keeps H2's undo log small
+    private static void insertRange(Statement sql, String what, long total, ChunkInsert insert) throws SQLException{
+        for(long from = 1; from <= total; from += CHUNK){
+            long to = Math.min(total, from + CHUNK - 1);
+            sql.executeUpdate(insert.sql(from, to));
+            log("%s: %,d / %,d", what, to, total);
+        }
+    }
+
+    //case <expr> when 0 then 'a' when 1 then 'b' ... end
+    private static String pick(String expr, String[] values){
+        StringBuilder sb = new StringBuilder("case ").append(expr);
+        for(int i = 0; i < values.length; i++){
+            sb.append(" when ").append(i).append(" then '").append(values[i]).append('\'');
+        }
+        return sb.append(" end").toString();
+    }
+
+    private static void log(String format, Object... args){
+        System.out.println("[seed] " + format.formatted(args));
+    }
+}
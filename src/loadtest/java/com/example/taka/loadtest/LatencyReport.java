@@ -0,0 +1,102 @@
+package com.example.taka.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Latencies (microseconds, 3 significant digits) and response codes per endpoint for the measured part of a run.
+ * write() keeps one HdrHistogram percentile file (.hgrm, milliseconds) per endpoint plus summary.txt,
+ * so two runs can be compared or plotted with the usual HdrHistogram tools.
+ */
+final class LatencyReport {
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<Workload.Endpoint, Histogram> latencies = new EnumMap<>(Workload.Endpoint.class);
+    private final Map<Workload.Endpoint, Map<Integer, LongAdder>> statuses = new EnumMap<>(Workload.Endpoint.class);
+    private final Duration measured;
+    private final String description;
+
+    LatencyReport(Duration measured, String description){
+        this.measured = measured;
+        this.description = description;
+        for(Workload.Endpoint endpoint : Workload.Endpoint.values()){
+            latencies.put(endpoint, new ConcurrentHistogram(MAX_MICROS, 3));
+            statuses.put(endpoint, new ConcurrentHashMap<>());
+        }
+    }
+
+    //status -1: no response (connection error or timeout)
+    void record(Workload.Endpoint endpoint, long nanos, int status){
+        latencies.get(endpoint).recordValue(Math.min(MAX_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        statuses.get(endpoint).computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    String summary(){
+        StringBuilder out = new StringBuilder(description).append('\n');
+        out.append("%-38s %9s %9s %8s %9s %9s %9s %9s %9s%n".formatted(
+                "endpoint", "count", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        Histogram all = new Histogram(MAX_MICROS, 3);
+        long allErrors = 0;
+        for(Workload.Endpoint endpoint : Workload.Endpoint.values()){
+            Histogram histogram = latencies.get(endpoint);
+            long errors = errors(endpoint);
+            all.add(histogram);
+            allErrors += errors;
+            out.append(line(endpoint.label(), histogram, errors));
+        }
+        out.append(line("all", all, allErrors));
+        for(Workload.Endpoint endpoint : Workload.Endpoint.values()){
+            if(errors(endpoint) > 0){
+                out.append("  ").append(endpoint.label()).append(" responses: ").append(statusCounts(endpoint)).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    void write(Path dir) throws IOException{
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve("summary.txt"), summary());
+        for(Workload.Endpoint endpoint : Workload.Endpoint.values()){
+            try(PrintStream file = new PrintStream(Files.newOutputStream(dir.resolve(endpoint.name().toLowerCase() + ".hgrm")))){
+                latencies.get(endpoint).outputPercentileDistribution(file, 1000.0);
+            }
+        }
+    }
+
+    private String line(String label, Histogram histogram, long errors){
+        long count = histogram.getTotalCount();
+        double perSecond = count / (measured.toMillis() / 1000.0);
+        return "%-38s %9d %9.1f %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n".formatted(label, count, perSecond, errors,
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram histogram, double percentile){
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private long errors(Workload.Endpoint endpoint){
+        return statuses.get(endpoint).entrySet().stream()
+                .filter(e -> e.getKey() < 200 || e.getKey() >= 400)
+                .mapToLong(e -> e.getValue().sum())
+                .sum();
+    }
+
+    private Map<Integer, Long> statusCounts(Workload.Endpoint endpoint){
+        Map<Integer, Long> counts = new TreeMap<>();
+        statuses.get(endpoint).forEach((status, n) -> counts.put(status, n.sum()));
+        return counts;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.taka.loadtest;
+
+import com.example.taka.TakaApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/*
+ * End-to-end load test of the whole stack on one box, no external database or network needed:
+ *   1. DatasetSeeder fills an H2 file database (reused by later runs with the same sizes),
+ *   2. the app starts on it with the "loadtest" profile on a random port,
+ *   3. Workload drives a mix of feed, detail, search, replies, new replies and logins over HTTP,
+ *   4. LatencyReport prints a latency histogram per endpoint and keeps it under <dir>/results/<time>.
+ *
+ * Started by mvn -P loadtest verify (see the profile in pom.xml for the knobs); program arguments
+ * go to the app (the profile passes spring.threads.virtual.enabled from -Dloadtest.virtual-threads).
+ * Client and server share the JVM, so leave the box otherwise idle and compare runs with each other.
+ */
+public class LoadTest {
+
+    /* run parameters, from -Dloadtest.* */
+    record Settings(long requests, long replies, long users, int clients, double rate,
+                    Duration warmup, Duration duration, String mix, Path dir){
+
+        static Settings fromSystemProperties(){
+            return new Settings(
+                    Long.getLong("loadtest.requests", 1_000_000),
+                    Long.getLong("loadtest.replies", 10_000_000),
+                    Long.getLong("loadtest.users", 10_000),
+                    Integer.getInteger("loadtest.clients", 64),
+                    Double.parseDouble(System.getProperty("loadtest.rate", "0")),
+                    DurationStyle.detectAndParse(System.getProperty("loadtest.warmup", "30s")),
+                    DurationStyle.detectAndParse(System.getProperty("loadtest.duration", "2m")),
+                    System.getProperty("loadtest.mix", "feed=35,detail=25,search=10,replies=15,reply=10,login=5"),
+                    Path.of(System.getProperty("loadtest.dir", "target/loadtest")).toAbsolutePath());
+        }
+    }
+
+    public static void main(String[] args) throws Exception{
+        Settings settings = Settings.fromSystemProperties();
+        Files.createDirectories(settings.dir());
+        Path db = settings.dir().resolve("taka");
+
+        new DatasetSeeder(db, settings).seedIfNeeded();
+
+        ConfigurableApplicationContext app = new SpringApplicationBuilder(TakaApplication.class)
+                .profiles("loadtest")
+                .properties("loadtest.db=" + db)
+                .run(args);
+        try{
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            LatencyReport report = new Workload(URI.create("http://localhost:" + port), settings).run();
+
+            Path results = settings.dir().resolve("results").resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+            report.write(results);
+            System.out.println();
+            System.out.print(report.summary());
+            System.out.println("histograms: " + results);
+        }finally{
+            app.close();
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.taka.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Simulated clients, one virtual thread each, calling the app over HTTP with the configured mix.
+ *
+ * Closed model by default: every client sends its next call as soon as the last one returned. With
+ * loadtest.rate > 0 the clients share that many calls per second on a fixed schedule and latency is
+ * measured from the scheduled start, so a stalled server shows up as queueing delay instead of
+ * silently lowering the load (coordinated omission).
+ *
+ * Detail and replies reads hit the newest HOT_REQUESTS requests HOT_SHARE of the time, the rest
+ * uniformly, so both the caches and the database are exercised.
+ */
+final class Workload {
+    static final int HOT_REQUESTS = 1_000;
+    static final double HOT_SHARE = 0.2;
+    //feed pages a client follows before going back to the first one
+    static final int FEED_DEPTH = 5;
+
+    enum Endpoint {
+        FEED("GET /api/requests/feed"),
+        DETAIL("GET /api/requests/{id}"),
+        SEARCH("GET /api/requests/search"),
+        REPLIES("GET /api/requests/{id}/replies/page"),
+        REPLY("POST /api/requests/{id}/replies"),
+        LOGIN("POST /api/auth/login");
+
+        private final String label;
+
+        Endpoint(String label){
+            this.label = label;
+        }
+
+        String label(){
+            return label;
+        }
+    }
+
+    private final URI base;
+    private final LoadTest.Settings settings;
+    private final Endpoint[] mix;
+    private final ObjectMapper json = new ObjectMapper();
+    private final HttpClient http;
+
+    Workload(URI base, LoadTest.Settings settings){
+        this.base = base;
+        this.settings = settings;
+        this.mix = parseMix(settings.mix());
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    //"feed=35,detail=25,..." -> 100 slots, one picked at random per call
+    static Endpoint[] parseMix(String spec){
+        List<Endpoint> slots = new ArrayList<>();
+        for(String part : spec.split(",")){
+            String[] kv = part.trim().split("=");
+            Endpoint endpoint = Endpoint.valueOf(kv[0].trim().toUpperCase());
+            for(int i = Integer.parseInt(kv[1].trim()); i > 0; i--){
+                slots.add(endpoint);
+            }
+        }
+        if(slots.isEmpty()){
+            throw new IllegalArgumentException("empty workload mix: " + spec);
+        }
+        return slots.toArray(Endpoint[]::new);
+    }
+
+    LatencyReport run() throws Exception{
+        String model = settings.rate() > 0 ? "open, %.0f req/s".formatted(settings.rate()) : "closed";
+        LatencyReport report = new LatencyReport(settings.duration(), "%d clients (%s), %s warmup, %s measured, mix %s, %,d requests / %,d replies"
+                .formatted(settings.clients(), model, settings.warmup(), settings.duration(), settings.mix(), settings.requests(), settings.replies()));
+
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+        System.out.printf("[load] %d clients, warming up for %s, then measuring for %s%n", settings.clients(), settings.warmup(), settings.duration());
+
+        try(ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()){
+            List<Future<?>> running = new ArrayList<>();
+            for(int i = 0; i < settings.clients(); i++){
+                Client client = new Client(i);
+                running.add(clients.submit(() -> {
+                    client.run(report, start, measureFrom, end);
+                    return null;
+                }));
+            }
+            for(Future<?> client : running){
+                client.get();
+            }
+        }
+        return report;
+    }
+
+    /* one simulated user: its own account, token and feed position*/
+    private final class Client {
+        final long userId;
+        final long offsetNanos;
+        String token;
+        String feedCursor;
+        int feedPage;
+
+        Client(int index){
+            this.userId = index % settings.users() + 1;
+            //spread the scheduled starts of the clients over one interval
+            this.offsetNanos = settings.rate() > 0 ? (long) (index * TimeUnit.SECONDS.toNanos(1) / settings.rate()) : 0;
+        }
+
+        void run(LatencyReport report, long start, long measureFrom, long end) throws Exception{
+            token = login(userId).token();
+            long interval = settings.rate() > 0 ? (long) (settings.clients() * TimeUnit.SECONDS.toNanos(1) / settings.rate()) : 0;
+            long scheduled = start + offsetNanos;
+            while(true){
+                long begin;
+                if(interval > 0){
+                    LockSupport.parkNanos(scheduled - System.nanoTime());
+                    begin = scheduled;
+                    scheduled += interval;
+                }else{
+                    begin = System.nanoTime();
+                }
+                if(begin >= end){
+                    return;
+                }
+                Endpoint endpoint = mix[ThreadLocalRandom.current().nextInt(mix.length)];
+                int status;
+                try{
+                    status = call(endpoint);
+                }catch(IOException ex){
+                    status = -1;
+                }
+                if(begin >= measureFrom){
+                    report.record(endpoint, System.nanoTime() - begin, status);
+                }
+            }
+        }
+
+        int call(Endpoint endpoint) throws IOException, InterruptedException{
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            return switch(endpoint){
+                case FEED -> feed();
+                case DETAIL -> get("/api/requests/" + requestId(random)).statusCode();
+                case SEARCH -> get("/api/requests/search?size=20&q=" + URLEncoder.encode(searchTerms(random), StandardCharsets.UTF_8)).statusCode();
+                case REPLIES -> get("/api/requests/" + requestId(random) + "/replies/page?size=20&sort=price,asc").statusCode();
+                case REPLY -> reply(requestId(random), random);
+                case LOGIN -> login(random.nextLong(settings.users()) + 1).status();
+            };
+        }
+
+        int feed() throws IOException, InterruptedException{
+            String path = "/api/requests/feed?size=20" + (feedCursor == null ? "" : "&cursor=" + URLEncoder.encode(feedCursor, StandardCharsets.UTF_8));
+            HttpResponse<String> response = get(path);
+            if(response.statusCode() == 200 && ++feedPage < FEED_DEPTH){
+                JsonNode next = json.readTree(response.body()).get("nextCursor");
+                feedCursor = next == null || next.isNull() ? null : next.asText();
+            }else{
+                feedCursor = null;
+                feedPage = 0;
+            }
+            return response.statusCode();
+        }
+
+        int reply(long requestId, ThreadLocalRandom random) throws IOException, InterruptedException{
+            String body = "{\"message\":\"I can deliver tomorrow\",\"price\":%d.5}".formatted(random.nextInt(10, 2000));
+            int status = postReply(requestId, body);
+            if(status == 401){
+                //access token expired during a long run: log in again, not part of the measurement
+                token = login(userId).token();
+                status = postReply(requestId, body);
+            }
+            return status;
+        }
+
+        int postReply(long requestId, String body) throws IOException, InterruptedException{
+            HttpRequest request = HttpRequest.newBuilder(base.resolve("/api/requests/" + requestId + "/replies"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+    }
+
+    private record Login(int status, String token){}
+
+    private Login login(long userId) throws IOException, InterruptedException{
+        String body = "{\"email\":\"user%d%s\",\"password\":\"%s\"}".formatted(userId, DatasetSeeder.EMAIL_DOMAIN, DatasetSeeder.PASSWORD);
+        HttpRequest request = HttpRequest.newBuilder(base.resolve("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if(response.statusCode() != 200){
+            return new Login(response.statusCode(), null);
+        }
+        return new Login(200, json.readTree(response.body()).get("token").asText());
+    }
+
+    private HttpResponse<String> get(String pathAndQuery) throws IOException, InterruptedException{
+        return http.send(HttpRequest.newBuilder(base.resolve(pathAndQuery)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private long requestId(ThreadLocalRandom random){
+        long requests = settings.requests();
+        if(random.nextDouble() < HOT_SHARE){
+            return requests - random.nextLong(Math.min(HOT_REQUESTS, requests));
+        }
+        return random.nextLong(requests) + 1;
+    }
+
+    //one or two of the words the seeded titles are made of
+    private static String searchTerms(ThreadLocalRandom random){
+        String item = DatasetSeeder.ITEMS[random.nextInt(DatasetSeeder.ITEMS.length)];
+        return random.nextBoolean() ? item : DatasetSeeder.CONDITIONS[random.nextInt(DatasetSeeder.CONDITIONS.length)] + " " + item;
+    }
+}
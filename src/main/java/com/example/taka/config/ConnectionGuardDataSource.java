@@ -0,0 +1,107 @@
+package com.example.taka.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Lets at most `permits` callers hold a connection at once; everyone else waits on a fair semaphore.
+ * With virtual threads there can be thousands of request threads but only a pool-sized number of
+ * connections. Waiting here parks a virtual thread cheaply (j.u.c. locks unmount it) instead of piling
+ * everyone into the pool and the driver, whose monitors pin the carrier thread.
+ *
+ * The permit is returned when the connection is closed (i.e. handed back to the pool).
+ */
+public class ConnectionGuardDataSource extends DelegatingDataSource {
+    private final Semaphore permits;
+    private final int maxPermits;
+    private final Duration acquireTimeout;
+
+    public ConnectionGuardDataSource(DataSource target, int permits, Duration acquireTimeout){
+        super(target);
+        this.permits = new Semaphore(permits, true);
+        this.maxPermits = permits;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException{
+        acquire();
+        try{
+            return guard(obtainTargetDataSource().getConnection());
+        }catch(SQLException | RuntimeException ex){
+            permits.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException{
+        acquire();
+        try{
+            return guard(obtainTargetDataSource().getConnection(username, password));
+        }catch(SQLException | RuntimeException ex){
+            permits.release();
+            throw ex;
+        }
+    }
+
+    public int getMaxPermits(){
+        return maxPermits;
+    }
+
+    public int getAvailablePermits(){
+        return permits.availablePermits();
+    }
+
+    //approximate, as reported by the semaphore
+    public int getWaiting(){
+        return permits.getQueueLength();
+    }
+
+    private void acquire() throws SQLException{
+        try{
+            if(!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)){
+                throw new SQLTransientConnectionException("no connection available within " + acquireTimeout.toMillis()
+                        + " ms (" + maxPermits + " in use, " + getWaiting() + " waiting)");
+            }
+        }catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("interrupted while waiting for a connection", ex);
+        }
+    }
+
+    //close() gives the permit back exactly once, however often it is called
+    private Connection guard(Connection target){
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionGuardDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if(method.getName().equals("close") && method.getParameterCount() == 0){
+                        try{
+                            target.close();
+                        }finally{
+                            if(released.compareAndSet(false, true)){
+                                permits.release();
+                            }
+                        }
+                        return null;
+                    }
+                    try{
+                        return method.invoke(target, args);
+                    }catch(InvocationTargetException ex){
+                        throw ex.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.taka.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/*
+ * Thread model for request handling, @Async and @Scheduled work.
+ *
+ * spring.threads.virtual.enabled=true runs every Tomcat request and every @Async task on a virtual
+ * thread (Boot configures both executors). Blocking JDBC then costs a parked virtual thread instead of
+ * one of the 200 platform threads, and the connection pool becomes the real limit. The DataSource is
+ * wrapped in a ConnectionGuardDataSource sized to that pool, so surplus callers queue before the pool.
+ *
+ * Set spring.threads.virtual.enabled=false to go back to the platform thread pool; the guard follows
+ * it unless app.datasource.guard.enabled is set explicitly.
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class ExecutionConfig {
+
+    //static: post-processors are created before the rest of the configuration
+    @Bean
+    public static BeanPostProcessor connectionGuardPostProcessor(
+            @Value("${app.datasource.guard.enabled:${spring.threads.virtual.enabled:false}}") boolean enabled,
+            @Value("${app.datasource.guard.permits:0}") int permits,
+            @Value("${app.datasource.guard.acquire-timeout:30s}") Duration acquireTimeout){
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName){
+                if(!enabled || !(bean instanceof DataSource dataSource) || bean instanceof ConnectionGuardDataSource){
+                    return bean;
+                }
+                return new ConnectionGuardDataSource(dataSource, guardPermits(dataSource, permits), acquireTimeout);
+            }
+        };
+    }
+
+    //connection guard occupancy, next to Hikari's own hikaricp.connections.* metrics
+    @Bean
+    public MeterBinder connectionGuardMetrics(DataSource dataSource){
+        return registry -> {
+            if(dataSource instanceof ConnectionGuardDataSource guard){
+                Gauge.builder("datasource.guard.waiting", guard, ConnectionGuardDataSource::getWaiting)
+                        .description("threads waiting for a connection permit").register(registry);
+                Gauge.builder("datasource.guard.available", guard, ConnectionGuardDataSource::getAvailablePermits)
+                        .description("connection permits not in use").register(registry);
+            }
+        };
+    }
+
+    //one permit per pooled connection unless configured otherwise
+    static int guardPermits(DataSource dataSource, int configured){
+        if(configured > 0){
+            return configured;
+        }
+        if(dataSource instanceof HikariDataSource hikari){
+            return hikari.getMaximumPoolSize();
+        }
+        return 10;
+    }
+}
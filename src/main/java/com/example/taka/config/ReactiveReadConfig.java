@@ -0,0 +1,54 @@
+package com.example.taka.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.StringUtils;
+
+/*
+ * R2DBC for the reactive read API (ReactiveListingQueries), configured from the usual spring.r2dbc.* properties.
+ *
+ * The connection pool is deliberately not a bean: Boot switches off its JDBC DataSource (and with it JPA,
+ * Flyway and the JPA transaction manager) as soon as an R2DBC ConnectionFactory bean exists. Hence
+ * R2dbcAutoConfiguration is excluded and only the DatabaseClient is exposed. Bind markers (:name) are
+ * translated per database by DatabaseClient.
+ */
+@Configuration
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class ReactiveReadConfig {
+    private ConnectionPool pool;
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(R2dbcProperties properties){
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate();
+        if(StringUtils.hasText(properties.getUsername())){
+            options.option(ConnectionFactoryOptions.USER, properties.getUsername());
+        }
+        if(StringUtils.hasText(properties.getPassword())){
+            options.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+        }
+
+        R2dbcProperties.Pool poolProperties = properties.getPool();
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .initialSize(poolProperties.getInitialSize())
+                .maxSize(poolProperties.getMaxSize())
+                .maxIdleTime(poolProperties.getMaxIdleTime())
+                .name("reactive-reads")
+                .build());
+        return DatabaseClient.create(pool);
+    }
+
+    @PreDestroy
+    public void closePool(){
+        if(pool != null){
+            pool.dispose();
+        }
+    }
+}
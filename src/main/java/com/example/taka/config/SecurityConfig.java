@@ -1,8 +1,12 @@
 package com.example.taka.config; // Defines the package where this configuration class resides.
 
+import com.example.taka.security.BoundedPasswordEncoder; // Imports the password encoder that hashes on its own bounded thread pool.
 import com.example.taka.security.JwtAuthenticationFilter; // Imports a custom filter responsible for handling JWT authentication.
+import com.example.taka.security.RateLimitFilter; // Imports the per-caller rate limit filter for login, bulk and search routes.
 import com.example.taka.services.CustomUserDetailsService; // Imports a service to load user-specific data during authentication.
+import io.micrometer.core.instrument.MeterRegistry; // Imports MeterRegistry, where the hashing metrics are published.
 import lombok.RequiredArgsConstructor; // Lombok annotation to automatically generate a constructor with required arguments (final fields).
+import org.springframework.beans.factory.annotation.Value; // Imports @Value, used to read the hashing settings from application.properties.
 import org.springframework.context.annotation.Bean; // Imports @Bean annotation, used to declare a method that produces a bean to be managed by the Spring container.
 import org.springframework.context.annotation.Configuration; // Imports @Configuration annotation, marking this class as a source of bean definitions.
 import org.springframework.http.HttpMethod; // Imports HttpMethod enum, used to specify HTTP request methods (e.g., POST, GET).
@@ -26,10 +30,17 @@ public class SecurityConfig {
 
     private final CustomUserDetailsService userDetailsService; // Injects a service to retrieve user details (e.g., from a database).
     private final JwtAuthenticationFilter jwtFilter; // Injects the custom JWT authentication filter.
+    private final RateLimitFilter rateLimitFilter; // Injects the rate limit filter.
 
     @Bean // Declares a Spring bean for password encoding.
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(); // Returns an instance of BCryptPasswordEncoder for secure password hashing.
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.security.bcrypt.strength:10}") int strength, // BCrypt work factor (log2 rounds); stored hashes below it are upgraded on the next login.
+            @Value("${app.security.hashing.threads:0}") int threads, // Hashing threads; 0 means one per core.
+            @Value("${app.security.hashing.queue-capacity:64}") int queueCapacity, // Hash calls allowed to wait; beyond that callers get 429.
+            MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        // BCrypt runs on its own bounded pool so login/register storms cannot starve the request threads (see BoundedPasswordEncoder).
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity, meterRegistry);
     }
 
     // Exposes the AuthenticationManager as a Spring bean.
@@ -52,15 +63,29 @@ public class SecurityConfig {
                 .authorizeHttpRequests(authz -> authz
                         // Allows unauthenticated access to login and register endpoints (POST requests).
                         .requestMatchers(HttpMethod.POST, "/api/auth/login", "/api/auth/register").permitAll()
+                        // Refresh and logout are authorized by the refresh token in the body, the access token may already be expired.
+                        .requestMatchers(HttpMethod.POST, "/api/auth/refresh", "/api/auth/logout").permitAll()
+                        // Full data export is for admins only; must come before the public GET rule below.
+                        .requestMatchers(HttpMethod.GET, "/api/requests/export").hasAuthority("ADMIN")
+                        // So is bulk import: an unbounded NDJSON upload that creates listings in bulk.
+                        .requestMatchers(HttpMethod.POST, "/api/requests/import").hasAuthority("ADMIN")
+                        // Moderation (hiding/removing a request) is for admins only.
+                        .requestMatchers(HttpMethod.PATCH, "/api/requests/*/content-status").hasAuthority("ADMIN")
                         // Allows unauthenticated access to GET requests for "/api/requests/**" (e.g., fetching public requests).
                         .requestMatchers(HttpMethod.GET, "/api/requests/**").permitAll()
+                        // The reactive read API is as public as the blocking reads above.
+                        .requestMatchers(HttpMethod.GET, "/api/reactive/requests/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/users/**").hasAuthority("ADMIN")
+                        // Actuator endpoints (cache hit/miss metrics etc.) are for admins only.
+                        .requestMatchers("/actuator/**").hasAuthority("ADMIN")
                         // Requires authentication for any other request not explicitly permitted above.
                         .anyRequest().authenticated()
                 )
                 // Adds the custom JwtAuthenticationFilter before Spring Security's default UsernamePasswordAuthenticationFilter.
                 // This ensures that JWTs are processed and authenticated before traditional username/password authentication.
-                .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+                // Rate limits run once the JWT is resolved, so signed-in callers are limited per user rather than per IP.
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build(); // Builds and returns the configured SecurityFilterChain.
     }
@@ -5,8 +5,14 @@ import com.example.taka.models.UserProfile;
 import com.example.taka.models.UserRole;
 import com.example.taka.repos.UserProfileRepository;
 import com.example.taka.security.JwtUtil;
+import com.example.taka.security.RevokedTokenRegistry;
+import com.example.taka.security.VerifiedToken;
+import com.example.taka.services.RefreshTokenService;
+import com.example.taka.services.UserProfileCache;
+import io.jsonwebtoken.JwtException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -16,6 +22,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -28,6 +35,9 @@ public class AuthController {
     private final JwtUtil jwtUtil;
     private final UserProfileRepository userRepo;
     private final PasswordEncoder passwordEncoder;
+    private final UserProfileCache userCache;
+    private final RefreshTokenService refreshTokens;
+    private final RevokedTokenRegistry revokedTokens;
 
 
     @PostMapping("/login")
@@ -40,10 +50,39 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        //if authentication succeeds, generate JWT
-        String token = jwtUtil.generateToken(request.email());
+        //if authentication succeeds, generate JWT carrying role/id/enabled so later requests skip the DB
+        UserProfile user = userRepo.findByEmail(request.email().trim().toLowerCase()).orElse(null);
+        if(user == null){
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(tokens(user, refreshTokens.issue(user)));
+    }
+
+    /* new access token + the refresh token that replaces the one sent; no password check, no BCrypt*/
+    @PostMapping("/refresh")
+    public AuthDto.AuthResponse refresh(@Valid @RequestBody AuthDto.RefreshRequest request){
+        RefreshTokenService.Rotation rotation = refreshTokens.rotate(request.refreshToken());
+        return tokens(rotation.user(), rotation.refreshToken());
+    }
+
+    /* revokes the refresh token (with its family) and, when sent, the access token until it expires*/
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody AuthDto.RefreshRequest request,
+                                       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader){
+        refreshTokens.revoke(request.refreshToken());
+        if(authHeader != null && authHeader.startsWith("Bearer ")){
+            try{
+                VerifiedToken access = jwtUtil.verify(authHeader.substring(7));
+                revokedTokens.revoke(access.tokenId(), access.expiresAt());
+            }catch(JwtException | IllegalArgumentException ex){
+                //expired or invalid already: nothing to revoke
+            }
+        }
+        return ResponseEntity.noContent().build();
+    }
 
-        return ResponseEntity.ok(new AuthDto.AuthResponse(token));
+    private AuthDto.AuthResponse tokens(UserProfile user, String refreshToken){
+        return new AuthDto.AuthResponse(jwtUtil.generateToken(user), refreshToken, jwtUtil.getExpirationMs() / 1000);
     }
 
 
@@ -67,6 +106,7 @@ public class AuthController {
                 .build();
 
         userRepo.save(newUser);
+        userCache.evictEmail(newUser.getEmail());
         return ResponseEntity.status(HttpStatus.CREATED).body("Account registered successfully");
     }
 }
@@ -8,18 +8,30 @@ import com.example.taka.models.Reply;
 import com.example.taka.models.UserProfile;
 import com.example.taka.models.UserRole;
 import com.example.taka.repos.ReplyRepository;
+import com.example.taka.services.ListingBulkService;
 import com.example.taka.services.ListingService;
+import com.example.taka.services.ListingVersions;
+import com.example.taka.services.ReplyStreamHub;
 import com.example.taka.services.UserProfileService;
 import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.security.Principal;
 import java.util.List;
 
@@ -30,10 +42,13 @@ import org.springframework.security.access.prepost.PreAuthorize;
 @RequiredArgsConstructor
 @Slf4j
 public class ListingController {
+    private static final String NDJSON = "application/x-ndjson";
 
     private final ListingService listingService;
     private final ReplyRepository replyRepo;
     private final UserProfileService userProfService;
+    private final ListingBulkService bulkService;
+    private final ReplyStreamHub replyStreams;
 
     //for skipping user verification in development- But is active in production
     @Value("${app.security.skip-user-verification:false}")
@@ -54,11 +69,22 @@ public class ListingController {
         return listingService.findAllRequests(pageable);
     }
 
-    /* 2. Get /api/requests/{id}  -> Get a single request*/
+    /* 1b. Get /api/requests/feed?cursor=...&size=20 -> newest first, cursor based (no offset, no count)*/
+    @GetMapping("/feed")
+    public ListingDtos.CursorPage<ListingDtos.ResponseToRequestDto> getRequestFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size){
+        return listingService.findRequestFeed(cursor, size);
+    }
+
+    /* 2. Get /api/requests/{id}  -> Get a single request. 304 when If-None-Match / If-Modified-Since still match*/
     @GetMapping("/{id}")
-    public ListingDtos.ResponseToRequestDto getSingleRequest(@PathVariable Long id){
-        Request r = listingService.findRequestById(id);
-        return listingService.toRequestDto((r));
+    public ListingDtos.ResponseToRequestDto getSingleRequest(@PathVariable Long id, WebRequest webRequest){
+        ListingDtos.ResponseToRequestDto dto = listingService.getRequestDto(id);
+        if(isNotModified(webRequest, listingService.requestValidators(dto))){
+            return null;
+        }
+        return dto;
     }
 
     /* 3. POST /api/requests -> create a new buy request*/
@@ -96,8 +122,15 @@ public class ListingController {
 
         //save entity
         Request updated = listingService.updateRequest(id, dto);
-        //return Dto of the updated row
-        return listingService.toRequestDto(updated);
+        //return Dto of the updated row, replies are untouched by the update so keep their aggregates
+        return listingService.withReplyStats(listingService.toRequestDto(updated));
+    }
+
+    /* 4b. PATCH /api/requests/{id}/content-status -> moderation (ADMIN, see SecurityConfig)*/
+    @PatchMapping("/{id}/content-status")
+    public ListingDtos.ResponseToRequestDto moderateRequest(@PathVariable Long id, @RequestBody @Valid ListingDtos.ModerationDto dto){
+        Request moderated = listingService.moderateRequest(id, dto.contentStatus());
+        return listingService.withReplyStats(listingService.toRequestDto(moderated));
     }
 
     /* 5. Delete  -> Delete Request*/
@@ -133,14 +166,43 @@ public class ListingController {
         UserProfile admin = userProfService.findByEmail(principal.getName());
         isUserVerified(admin);  // still check enabled if you want
 
-        // map, save and return each one
-        return dtos.stream()
-                .map(dto -> {
-                    Request r = listingService.fromRequestToDto(dto, admin);
-                    Request saved = listingService.saveRequest(r);
-                    return listingService.toRequestDto(saved);
-                })
-                .toList();
+        // one transaction, JDBC-batched inserts
+        return listingService.saveRequestsBatch(dtos, admin);
+    }
+
+    /**
+     * 7. POST /api/requests/import  (Content-Type: application/x-ndjson, ADMIN, see SecurityConfig)
+     *    Streams one CreateRequestDto per line; answers with one result line per input line
+     *    followed by a summary line, while the upload is still being read.
+     */
+    @PostMapping(value = "/import", consumes = NDJSON)
+    public void importRequests(HttpServletRequest request, HttpServletResponse response, Principal principal) throws IOException {
+        UserProfile admin = userProfService.findByEmail(principal.getName());
+        isUserVerified(admin);
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(NDJSON);
+        bulkService.importRequests(request.getInputStream(), response.getOutputStream(), admin);
+    }
+
+    /**
+     * 8. GET /api/requests/export?format=ndjson|csv  (ADMIN, see SecurityConfig)
+     *    Every request with its reply count, streamed straight from a database cursor.
+     */
+    @GetMapping("/export")
+    public void exportRequests(@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response) throws IOException {
+        ListingBulkService.ExportFormat exportFormat;
+        try{
+            exportFormat = ListingBulkService.ExportFormat.valueOf(format.toUpperCase());
+        }catch(IllegalArgumentException ex){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
+        }
+
+        boolean csv = exportFormat == ListingBulkService.ExportFormat.CSV;
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(csv ? "text/csv;charset=UTF-8" : NDJSON);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=requests." + (csv ? "csv" : "ndjson"));
+        bulkService.exportRequests(exportFormat, response.getOutputStream());
     }
 
      // ─────────────── REPLIES ──────────────────────────────────────────────────────────────────────────────────────────
@@ -150,12 +212,41 @@ public class ListingController {
     * GET /api/requests/{id}/replies
     * */
     @GetMapping("/{id}/replies")
-    public List<ListingDtos.ResponseToReplyDto> getReplies(@PathVariable Long id){
-        //fetch the parent Request(which loads its replies)
+    public List<ListingDtos.ResponseToReplyDto> getReplies(@PathVariable Long id, WebRequest webRequest){
+        //cheap aggregate first, replies are only loaded when the client's copy is stale
+        if(isNotModified(webRequest, listingService.repliesValidators(id))){
+            return null;
+        }
         return listingService.getAllRepliesToRequest(id);
 
     }
 
+    /*
+    * 1b. Page through the replies of a request
+    * GET /api/requests/{id}/replies/page?page=0&size=20&sort=price,asc   (sort: price | createdAt)
+    * Returns a slice (hasNext instead of a total count), so hot requests never load all offers.
+    * */
+    @GetMapping("/{id}/replies/page")
+    public Slice<ListingDtos.ResponseToReplyDto> getRepliesPage(@PathVariable Long id, @PageableDefault(size = 20) Pageable pageable, WebRequest webRequest){
+        //every page of a request shares the version of its replies; caches key on the full URL
+        if(isNotModified(webRequest, listingService.repliesValidators(id))){
+            return null;
+        }
+        return listingService.getRepliesPage(id, pageable);
+    }
+
+    /*
+    * 1c. Live replies to a request as server-sent events ("reply" events, id = reply id)
+    * GET /api/requests/{id}/replies/stream
+    * Reconnecting clients send Last-Event-ID and first get the replies they missed.
+    * */
+    @GetMapping(value = "/{id}/replies/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamReplies(@PathVariable Long id, @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId){
+        //404 for unknown requests, served from the detail cache
+        listingService.getRequestDto(id);
+        return replyStreams.subscribe(id, lastEventId);
+    }
+
     /*
     * 2. Add reply to a request
     * POST /api/requests/{id}/replies
@@ -237,6 +328,49 @@ public class ListingController {
         return listingService.findRequestByTitle(title);
     }
 
+    /*
+    * 1b. Filter requests server-side; every parameter is optional
+    * GET /api/requests/filter?category=Bikes&location=Ottawa&minPrice=10&maxPrice=200&status=OPEN&page=0&size=20&sort=offerPrice,asc
+    * */
+    @GetMapping("/filter")
+    public Page<ListingDtos.ResponseToRequestDto> filter(@Valid ListingDtos.RequestFilter filter, Pageable pageable){
+        return listingService.filterRequests(filter, pageable);
+    }
+
+    /*
+    * 1c. Requests near a point, nearest first
+    * GET /api/requests/nearby?lat=45.42&lon=-75.69&radiusKm=10&limit=20
+    * */
+    @GetMapping("/nearby")
+    public List<ListingDtos.NearbyRequestDto> nearby(@RequestParam double lat,
+                                                     @RequestParam double lon,
+                                                     @RequestParam(defaultValue = "10") double radiusKm,
+                                                     @RequestParam(defaultValue = "20") int limit){
+        return listingService.findNearby(lat, lon, radiusKm, limit);
+    }
+
+    /*
+    * 1d. Requests inside a map viewport (at most 10 degrees per side), nearest to its centre first
+    * GET /api/requests/within?minLat=45.3&minLon=-75.9&maxLat=45.5&maxLon=-75.5&limit=50
+    * */
+    @GetMapping("/within")
+    public List<ListingDtos.NearbyRequestDto> within(@RequestParam double minLat,
+                                                     @RequestParam double minLon,
+                                                     @RequestParam double maxLat,
+                                                     @RequestParam double maxLon,
+                                                     @RequestParam(defaultValue = "20") int limit){
+        return listingService.findWithin(minLat, minLon, maxLat, maxLon, limit);
+    }
+
+    /*
+    * 2. Full-text search over title, description, category and location
+    * GET /api/requests/search?q=red bike&page=0&size=20 -> ranked page
+    * */
+    @GetMapping("/search")
+    public Page<ListingDtos.ResponseToRequestDto> search(@RequestParam("q") String query, Pageable pageable){
+        return listingService.searchRequests(query, pageable);
+    }
+
     //find all replies by a user
     @GetMapping("/replies/user")
     public List<ListingDtos.ResponseToReplyDto> getAllRepliesForUser( Principal principal){
@@ -256,4 +390,9 @@ public class ListingController {
                     "Your account has not yet been verified");
         }
     }
+
+    //sets ETag + Last-Modified on the response; true (and status 304) when the client's copy is current
+    private static boolean isNotModified(WebRequest webRequest, ListingVersions.Validators validators){
+        return webRequest.checkNotModified(validators.etag(), validators.lastModified().toEpochMilli());
+    }
 }
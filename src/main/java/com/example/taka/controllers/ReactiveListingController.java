@@ -0,0 +1,62 @@
+package com.example.taka.controllers;
+
+import com.example.taka.dto.ListingDtos;
+import com.example.taka.services.ReactiveListingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/*
+ * Reactive read-only mirror of the listing reads in ListingController, backed by R2DBC.
+ * No thread waits on the database: results are written as rows arrive, and a streaming client
+ * only gets the next row once it has taken the previous one.
+ *
+ * Streams (text/event-stream or application/x-ndjson) are chosen with the Accept header and have mappings
+ * of their own: MVC streams a Flux whenever a streaming type is among the producible ones.
+ */
+@RestController
+@RequestMapping("/api/reactive/requests")
+@RequiredArgsConstructor
+public class ReactiveListingController {
+
+    private final ReactiveListingService reactiveListingService;
+
+    /* 1. GET /api/reactive/requests?cursor=...&size=20 -> one page of the feed, newest first, plus the next cursor*/
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ListingDtos.CursorPage<ListingDtos.ResponseToRequestDto>> getFeedPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size){
+        return reactiveListingService.feedPage(cursor, size);
+    }
+
+    /*
+     * 1b. Same URL with Accept: text/event-stream or application/x-ndjson
+     * -> the feed from the cursor on, one event/line per request, at most limit rows (capped at 1000).
+     */
+    @GetMapping(produces = {MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ListingDtos.ResponseToRequestDto> streamFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit){
+        return reactiveListingService.feed(cursor, limit);
+    }
+
+    /* 2. GET /api/reactive/requests/{id} -> a single request with its reply count and price range*/
+    @GetMapping("/{id}")
+    public Mono<ListingDtos.ResponseToRequestDto> getSingleRequest(@PathVariable Long id){
+        return reactiveListingService.getRequest(id);
+    }
+
+    /* 3. GET /api/reactive/requests/{id}/replies -> replies in id order as a JSON array*/
+    @GetMapping(value = "/{id}/replies", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<ListingDtos.ResponseToReplyDto> getReplies(@PathVariable Long id){
+        return reactiveListingService.getReplies(id);
+    }
+
+    /* 3b. Same URL with Accept: text/event-stream or application/x-ndjson -> one event/line per reply*/
+    @GetMapping(value = "/{id}/replies", produces = {MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ListingDtos.ResponseToReplyDto> streamReplies(@PathVariable Long id){
+        return reactiveListingService.getReplies(id);
+    }
+}
@@ -36,8 +36,16 @@ public class AuthDto {
 
 
 
+    //token: short-lived access token (expiresIn seconds); refreshToken: single use, for POST /api/auth/refresh
     public record AuthResponse(
-            String token
+            String token,
+            String refreshToken,
+            long expiresIn
+    ){}
+
+    //refresh and logout
+    public record RefreshRequest(
+            @NotBlank String refreshToken
     ){}
 
 
@@ -1,10 +1,14 @@
 package com.example.taka.dto;
 
+import com.example.taka.models.ContentStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.example.taka.models.RequestStatus;
 import jakarta.validation.constraints.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 public class ListingDtos {
 
@@ -36,8 +40,28 @@ public class ListingDtos {
 
             @NotBlank(message = "Location is required")
             @Size(max = 100, message = "Location must be at most 100 characters")
-            String location
-    ){}
+            String location,
+
+            //optional, both or neither
+            @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+            @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+            Double latitude,
+
+            @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+            @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+            Double longitude
+    ){
+        /* without coordinates*/
+        public CreateRequestDto(String title, String description, String imageUrl, BigDecimal offerPrice, String category, String location){
+            this(title, description, imageUrl, offerPrice, category, location, null, null);
+        }
+
+        @JsonIgnore
+        @AssertTrue(message = "Latitude and longitude must be given together")
+        public boolean isCoordinatesComplete(){
+            return (latitude == null) == (longitude == null);
+        }
+    }
 
     /* what the server sends back for Request*/
 
@@ -53,7 +77,127 @@ public class ListingDtos {
             LocalDateTime updatedAt,
             String status,
             String contentStatus,
-            String ownerEmail
+            String ownerEmail,
+            long replyCount,
+            BigDecimal lowestReplyPrice,
+            BigDecimal highestReplyPrice
+    ){
+        /* without reply aggregates: used by projection queries, filled in afterwards by withReplyStats*/
+        public ResponseToRequestDto(Long id, String title, String description, String imageUrl, BigDecimal offerPrice,
+                                    String category, String location, LocalDateTime createdAt, LocalDateTime updatedAt,
+                                    String status, String contentStatus, String ownerEmail){
+            this(id, title, description, imageUrl, offerPrice, category, location, createdAt, updatedAt,
+                    status, contentStatus, ownerEmail, 0, null, null);
+        }
+
+        public ResponseToRequestDto withReplyStats(ReplyStats stats){
+            if(stats == null){
+                return this;
+            }
+            return new ResponseToRequestDto(id, title, description, imageUrl, offerPrice, category, location,
+                    createdAt, updatedAt, status, contentStatus, ownerEmail,
+                    stats.replyCount(), stats.lowestPrice(), stats.highestPrice());
+        }
+    }
+
+    /* reply count and price range of one request, from a grouped aggregate query*/
+    public static record ReplyStats(
+            Long requestId,
+            long replyCount,
+            BigDecimal lowestPrice,
+            BigDecimal highestPrice
+    ){}
+
+
+    /* changes whenever a reply of the request is added, edited or deleted; basis of the replies ETag*/
+    public static record ReplyVersion(
+            long replyCount,
+            Long lastReplyId,
+            LocalDateTime lastUpdatedAt
+    ){}
+
+
+    /* optional filters of GET /api/requests/filter; null means "any"*/
+    public static record RequestFilter(
+            String category,
+            String location,
+            @DecimalMin(value = "0.0", message = "minPrice must not be negative")
+            BigDecimal minPrice,
+            @DecimalMin(value = "0.0", message = "maxPrice must not be negative")
+            BigDecimal maxPrice,
+            RequestStatus status
+    ){}
+
+
+    /* one proximity search result: the request, where it is and how far from the query point*/
+    public static record NearbyRequestDto(
+            ResponseToRequestDto request,
+            double latitude,
+            double longitude,
+            double distanceKm
+    ){}
+
+
+    /* what an admin sends to hide/remove/restore a request*/
+    public static record ModerationDto(
+            @NotNull(message = "Content status is required")
+            ContentStatus contentStatus
+    ){}
+
+
+    /* one page of a cursor-paginated listing; nextCursor is null on the last page*/
+    public static record CursorPage<T>(
+            List<T> items,
+            String nextCursor
+    ){}
+
+
+    /* the searchable fields of one request, as indexed by RequestSearchIndex*/
+    public static record SearchDocument(
+            Long id,
+            String title,
+            String description,
+            String category,
+            String location
+    ){}
+
+    /* coordinates of one request, as indexed by RequestGeoIndex*/
+    public static record GeoPoint(
+            Long id,
+            Double latitude,
+            Double longitude
+    ){}
+
+    /* one exported request row, with its number of replies*/
+    public static record RequestExportRow(
+            Long id,
+            String title,
+            String description,
+            String imageUrl,
+            BigDecimal offerPrice,
+            String category,
+            String location,
+            LocalDateTime createdAt,
+            LocalDateTime updatedAt,
+            String status,
+            String contentStatus,
+            String ownerEmail,
+            Long replyCount
+    ){}
+
+    /* one line of the NDJSON import response: id on success, errors otherwise*/
+    public static record ImportLineResult(
+            long line,
+            String status,
+            Long id,
+            Map<String, String> errors
+    ){}
+
+    /* last line of the NDJSON import response*/
+    public static record ImportSummary(
+            long lines,
+            long created,
+            long failed
     ){}
 
 
@@ -7,6 +7,7 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 import java.util.*;
 
 import java.util.HashMap;
@@ -26,6 +27,13 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(payload, HttpStatus.BAD_REQUEST);
     }
 
+    //exceptions that already carry their status (400 bad cursor, 403 not owner, 429 + Retry-After, ...) keep it and its headers
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<GenericErrorResponse> handleResponseStatusException(ResponseStatusException ex){
+        GenericErrorResponse payload = new GenericErrorResponse(ex.getReason());
+        return new ResponseEntity<>(payload, ex.getHeaders(), ex.getStatusCode());
+    }
+
     //handle "entity not found" or other runtime excptns (404 or 400)
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<GenericErrorResponse> handleRuntimeException(RuntimeException ex){
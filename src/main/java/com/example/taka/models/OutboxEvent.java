@@ -0,0 +1,50 @@
+package com.example.taka.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/*
+ * One listing change waiting to be delivered to the ListingEventSubscribers (see OutboxRelay).
+ * Inserted in the same transaction as the change itself and deleted once delivered.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    //pooled sequence so the rows of a batch ingest are JDBC-batched with the requests
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    private Long id;
+
+    //id of the request the change belongs to; events of one request are delivered in id order (see OutboxRelay)
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Column(nullable = false, length = 50)
+    private String eventType;
+
+    //JSON
+    @Lob
+    private String payload;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    //not delivered before this; pushed back after a failed delivery
+    @Builder.Default
+    @Column(nullable = false)
+    private LocalDateTime availableAt = LocalDateTime.now();
+
+    @Builder.Default
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    //set when delivery gave up after app.outbox.max-attempts; the row is kept for inspection and skipped
+    private LocalDateTime parkedAt;
+}
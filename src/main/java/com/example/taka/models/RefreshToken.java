@@ -0,0 +1,48 @@
+package com.example.taka.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/*
+ * One issued refresh token. The token itself is never stored, only its SHA-256 (tokenHash).
+ * Every rotation revokes the row and issues a new one in the same family, so a rotated token
+ * coming back means it was copied: the whole family is revoked (see RefreshTokenService).
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    //rows go with the user (on delete cascade)
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    //shared by every token rotated from the same login
+    @Column(nullable = false, length = 36)
+    private String familyId;
+
+    //UserProfile.tokenVersion at issue time; bumping the user's version retires the token
+    @Column(nullable = false)
+    private int tokenVersion;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    //set when rotated or revoked
+    private LocalDateTime revokedAt;
+}
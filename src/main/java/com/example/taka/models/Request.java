@@ -17,8 +17,10 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 public class Request {
+    //pooled sequence (not IDENTITY) so Hibernate can JDBC-batch inserts; 50 ids per round trip
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "request_seq")
+    @SequenceGenerator(name = "request_seq", sequenceName = "request_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Title cannot be empty")
@@ -45,6 +47,10 @@ public class Request {
     @Size(max = 100, message = "Location cannot exceed 100 characters")
     private String location;
 
+    //optional coordinates (WGS84 degrees) for proximity search, see RequestGeoIndex
+    private Double latitude;
+    private Double longitude;
+
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
     @Builder.Default
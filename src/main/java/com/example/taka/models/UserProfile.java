@@ -5,6 +5,7 @@ import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
@@ -66,4 +67,10 @@ public class UserProfile {
     @Column(nullable = false)
     private UserRole user_role = UserRole.USER;
 
+    //bumped whenever role/enabled change or the account is removed; older JWTs stop being accepted
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int tokenVersion = 0;
+
 }
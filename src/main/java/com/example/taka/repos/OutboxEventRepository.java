@@ -0,0 +1,44 @@
+package com.example.taka.repos;
+
+import com.example.taka.models.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /*
+     * Rows ready for delivery, oldest first. A row waiting behind an earlier row of the same request
+     * that is backing off after a failure is held back, so it does not overtake it. Parked rows are
+     * neither delivered nor hold anything back.
+     */
+    @Query("""
+            select o from OutboxEvent o
+            where o.parkedAt is null
+              and o.availableAt <= :now
+              and not exists (
+                select e.id from OutboxEvent e
+                where e.aggregateId = o.aggregateId and e.id < o.id
+                  and e.parkedAt is null and e.availableAt > :now)
+            order by o.id
+            """)
+    List<OutboxEvent> findDue(@Param("now") LocalDateTime now, Pageable limit);
+
+    //failed delivery: try again from retryAt
+    @Modifying
+    @Transactional
+    @Query("update OutboxEvent o set o.attempts = o.attempts + 1, o.availableAt = :retryAt where o.id = :id")
+    int postpone(@Param("id") Long id, @Param("retryAt") LocalDateTime retryAt);
+
+    //last attempt failed: stop delivering the row, keep it for inspection
+    @Modifying
+    @Transactional
+    @Query("update OutboxEvent o set o.attempts = o.attempts + 1, o.parkedAt = :parkedAt where o.id = :id")
+    int park(@Param("id") Long id, @Param("parkedAt") LocalDateTime parkedAt);
+}
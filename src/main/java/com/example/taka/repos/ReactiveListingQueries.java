@@ -0,0 +1,116 @@
+package com.example.taka.repos;
+
+import com.example.taka.dto.ListingDtos;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/*
+ * Read-only SQL for the reactive listing API, over R2DBC instead of JPA.
+ * Rows map straight onto the ListingDtos records the blocking endpoints return, reply aggregates included,
+ * and are emitted as the driver reads them, so a slow client slows the query instead of buffering it.
+ * Plain SQL that runs on both H2 and Oracle; it relies on the same indexes as RequestRepository.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactiveListingQueries {
+
+    private static final String REQUEST_COLUMNS = """
+            select r.id, r.title, r.description, r.image_url, r.offer_price, r.category, r.location,
+                   r.created_at, r.updated_at, r.status, r.content_status, o.email,
+                   (select count(*) from reply p where p.request_id = r.id) as reply_count,
+                   (select min(p.price) from reply p where p.request_id = r.id) as lowest_price,
+                   (select max(p.price) from reply p where p.request_id = r.id) as highest_price
+            from request r join user_profile o on o.id = r.owner_id
+            """;
+
+    private final DatabaseClient db;
+
+    /*
+     * Feed newest first, same order and seek predicate as RequestRepository.findFeedAfter.
+     * afterCreatedAt/afterId null = from the top. limit <= 0 = to the end.
+     */
+    public Flux<ListingDtos.ResponseToRequestDto> feed(LocalDateTime afterCreatedAt, Long afterId, int limit){
+        StringBuilder sql = new StringBuilder(REQUEST_COLUMNS);
+        if(afterCreatedAt != null){
+            sql.append(" where r.created_at <= :createdAt and (r.created_at < :createdAt or r.id < :id)");
+        }
+        sql.append(" order by r.created_at desc, r.id desc");
+        if(limit > 0){
+            sql.append(" fetch first :limit rows only");
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = db.sql(sql.toString());
+        if(afterCreatedAt != null){
+            spec = spec.bind("createdAt", afterCreatedAt).bind("id", afterId);
+        }
+        if(limit > 0){
+            spec = spec.bind("limit", limit);
+        }
+        return spec.map(ReactiveListingQueries::toRequestDto).all();
+    }
+
+    public Mono<ListingDtos.ResponseToRequestDto> findRequest(Long id){
+        return db.sql(REQUEST_COLUMNS + " where r.id = :id")
+                .bind("id", id)
+                .map(ReactiveListingQueries::toRequestDto)
+                .one();
+    }
+
+    //replies of one request in id order, like ReplyRepository.findReplyDtosByRequestId
+    public Flux<ListingDtos.ResponseToReplyDto> findReplies(Long requestId){
+        return db.sql("""
+                        select p.id, p.message, p.image_url, p.price, p.created_at, u.email, p.content_status
+                        from reply p join user_profile u on u.id = p.replier_id
+                        where p.request_id = :requestId
+                        order by p.id
+                        """)
+                .bind("requestId", requestId)
+                .map(ReactiveListingQueries::toReplyDto)
+                .all();
+    }
+
+    public Mono<Boolean> requestExists(Long id){
+        return db.sql("select count(*) as n from request where id = :id")
+                .bind("id", id)
+                .map(row -> row.get("n", Long.class) > 0)
+                .one();
+    }
+
+    private static ListingDtos.ResponseToRequestDto toRequestDto(Readable row){
+        Long replyCount = row.get("reply_count", Long.class);
+        return new ListingDtos.ResponseToRequestDto(
+                row.get("id", Long.class),
+                row.get("title", String.class),
+                row.get("description", String.class),
+                row.get("image_url", String.class),
+                row.get("offer_price", BigDecimal.class),
+                row.get("category", String.class),
+                row.get("location", String.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("updated_at", LocalDateTime.class),
+                row.get("status", String.class),
+                row.get("content_status", String.class),
+                row.get("email", String.class),
+                replyCount == null ? 0 : replyCount,
+                row.get("lowest_price", BigDecimal.class),
+                row.get("highest_price", BigDecimal.class));
+    }
+
+    private static ListingDtos.ResponseToReplyDto toReplyDto(Readable row){
+        return new ListingDtos.ResponseToReplyDto(
+                row.get("id", Long.class),
+                row.get("message", String.class),
+                row.get("image_url", String.class),
+                row.get("price", BigDecimal.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("email", String.class),
+                row.get("content_status", String.class));
+    }
+}
@@ -1,12 +1,76 @@
 package com.example.taka.repos;
 
+import com.example.taka.dto.ListingDtos;
 import com.example.taka.models.Reply;
 import com.example.taka.models.UserProfile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ReplyRepository extends JpaRepository<Reply, Long> {
 
     List<Reply> findByReplier(UserProfile replier);
+
+    //replies of one request with the replier email joined in, never touches Request.replies
+    @Query("""
+            select new com.example.taka.dto.ListingDtos$ResponseToReplyDto(
+                p.id, p.message, p.imageUrl, p.price, p.createdAt, u.email, str(p.contentStatus))
+            from Reply p join p.replier u
+            where p.request.id = :requestId
+            order by p.id
+            """)
+    List<ListingDtos.ResponseToReplyDto> findReplyDtosByRequestId(@Param("requestId") Long requestId);
+
+    //replies added after afterId, oldest first; catch-up for a reconnecting reply stream (Last-Event-ID)
+    @Query("""
+            select new com.example.taka.dto.ListingDtos$ResponseToReplyDto(
+                p.id, p.message, p.imageUrl, p.price, p.createdAt, u.email, str(p.contentStatus))
+            from Reply p join p.replier u
+            where p.request.id = :requestId and p.id > :afterId
+            order by p.id
+            """)
+    List<ListingDtos.ResponseToReplyDto> findReplyDtosByRequestIdAfter(@Param("requestId") Long requestId,
+                                                                      @Param("afterId") Long afterId,
+                                                                      Pageable limit);
+
+    //one slice of a request's replies, ordered by the pageable's sort; fetches size + 1 rows, no count query
+    @Query("""
+            select new com.example.taka.dto.ListingDtos$ResponseToReplyDto(
+                p.id, p.message, p.imageUrl, p.price, p.createdAt, u.email, str(p.contentStatus))
+            from Reply p join p.replier u
+            where p.request.id = :requestId
+            """)
+    Slice<ListingDtos.ResponseToReplyDto> findReplyDtoSliceByRequestId(@Param("requestId") Long requestId, Pageable pageable);
+
+    @Query("""
+            select new com.example.taka.dto.ListingDtos$ResponseToReplyDto(
+                p.id, p.message, p.imageUrl, p.price, p.createdAt, u.email, str(p.contentStatus))
+            from Reply p join p.replier u
+            where u.email = :email
+            order by p.id
+            """)
+    List<ListingDtos.ResponseToReplyDto> findReplyDtosByReplierEmail(@Param("email") String email);
+
+    //count + price range for a page of requests in one grouped query; requests without replies are absent
+    @Query("""
+            select new com.example.taka.dto.ListingDtos$ReplyStats(
+                p.request.id, count(p), min(p.price), max(p.price))
+            from Reply p
+            where p.request.id in :requestIds
+            group by p.request.id
+            """)
+    List<ListingDtos.ReplyStats> findReplyStatsByRequestIdIn(@Param("requestIds") Collection<Long> requestIds);
+
+    //single aggregate row, also for requests without replies (count 0, nulls)
+    @Query("""
+            select new com.example.taka.dto.ListingDtos$ReplyVersion(count(p), max(p.id), max(p.updatedAt))
+            from Reply p
+            where p.request.id = :requestId
+            """)
+    ListingDtos.ReplyVersion findReplyVersionByRequestId(@Param("requestId") Long requestId);
 }
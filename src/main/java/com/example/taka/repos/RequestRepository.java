@@ -1,12 +1,123 @@
 package com.example.taka.repos;
 
+import com.example.taka.dto.ListingDtos;
 import com.example.taka.models.Request;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface RequestRepository extends JpaRepository<Request, Long> {
+public interface RequestRepository extends JpaRepository<Request, Long>, JpaSpecificationExecutor<Request> {
     //gives me CRUD (save, findById(), delete, findAll(Pageable), findAll())
 
+    //filtered listing (see RequestSpecs); owner is fetched in the same select, no lazy load per row
+    @Override
+    @EntityGraph(attributePaths = "owner")
+    Page<Request> findAll(Specification<Request> spec, Pageable pageable);
+
     List<Request> findByTitle(String keyword);
+
+    /*
+     * Read-side projections: the owner's email is joined in the same statement,
+     * so a page of N requests costs one query instead of 1 + N lazy owner loads.
+     */
+    @Query(value = """
+            select new com.example.taka.dto.ListingDtos$ResponseToRequestDto(
+                r.id, r.title, r.description, r.imageUrl, r.offerPrice, r.category, r.location,
+                r.createdAt, r.updatedAt, str(r.status), str(r.contentStatus), o.email)
+            from Request r join r.owner o
+            """,
+            countQuery = "select count(r) from Request r")
+    Page<ListingDtos.ResponseToRequestDto> findAllRequestDtos(Pageable pageable);
+
+    @Query("""
+            select new com.example.taka.dto.ListingDtos$ResponseToRequestDto(
+                r.id, r.title, r.description, r.imageUrl, r.offerPrice, r.category, r.location,
+                r.createdAt, r.updatedAt, str(r.status), str(r.contentStatus), o.email)
+            from Request r join r.owner o
+            where r.title = :title
+            """)
+    List<ListingDtos.ResponseToRequestDto> findRequestDtosByTitle(@Param("title") String title);
+
+    /*
+     * Keyset (seek) feed ordered by (createdAt, id) descending. No offset and no count query:
+     * each page starts right after the last row of the previous one.
+     * The seek predicate is written as a range on createdAt so it can use idx_request_created_id.
+     * Callers pass PageRequest.of(0, n) only to limit the rows.
+     */
+    @Query("""
+            select new com.example.taka.dto.ListingDtos$ResponseToRequestDto(
+                r.id, r.title, r.description, r.imageUrl, r.offerPrice, r.category, r.location,
+                r.createdAt, r.updatedAt, str(r.status), str(r.contentStatus), o.email)
+            from Request r join r.owner o
+            order by r.createdAt desc, r.id desc
+            """)
+    List<ListingDtos.ResponseToRequestDto> findFeed(Pageable limit);
+
+    @Query("""
+            select new com.example.taka.dto.ListingDtos$ResponseToRequestDto(
+                r.id, r.title, r.description, r.imageUrl, r.offerPrice, r.category, r.location,
+                r.createdAt, r.updatedAt, str(r.status), str(r.contentStatus), o.email)
+            from Request r join r.owner o
+            where r.createdAt <= :createdAt and (r.createdAt < :createdAt or r.id < :id)
+            order by r.createdAt desc, r.id desc
+            """)
+    List<ListingDtos.ResponseToRequestDto> findFeedAfter(@Param("createdAt") LocalDateTime createdAt,
+                                                         @Param("id") Long id,
+                                                         Pageable limit);
+
+    @Query("""
+            select new com.example.taka.dto.ListingDtos$ResponseToRequestDto(
+                r.id, r.title, r.description, r.imageUrl, r.offerPrice, r.category, r.location,
+                r.createdAt, r.updatedAt, str(r.status), str(r.contentStatus), o.email)
+            from Request r join r.owner o
+            where r.id in :ids
+            """)
+    List<ListingDtos.ResponseToRequestDto> findRequestDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    //searchable fields only, walked in id order to (re)build RequestSearchIndex
+    @Query("""
+            select new com.example.taka.dto.ListingDtos$SearchDocument(r.id, r.title, r.description, r.category, r.location)
+            from Request r
+            where r.id > :afterId
+            order by r.id
+            """)
+    List<ListingDtos.SearchDocument> findSearchDocumentsAfter(@Param("afterId") Long afterId, Pageable limit);
+
+    //coordinates only, walked in id order to (re)build RequestGeoIndex
+    @Query("""
+            select new com.example.taka.dto.ListingDtos$GeoPoint(r.id, r.latitude, r.longitude)
+            from Request r
+            where r.id > :afterId and r.latitude is not null and r.longitude is not null
+            order by r.id
+            """)
+    List<ListingDtos.GeoPoint> findGeoPointsAfter(@Param("afterId") Long afterId, Pageable limit);
+
+    /*
+     * Forward-only stream of every request for export, read fetchSize rows per round trip.
+     * Rows are DTOs, not entities, so nothing accumulates in the persistence context.
+     * Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select new com.example.taka.dto.ListingDtos$RequestExportRow(
+                r.id, r.title, r.description, r.imageUrl, r.offerPrice, r.category, r.location,
+                r.createdAt, r.updatedAt, str(r.status), str(r.contentStatus), o.email,
+                (select count(p) from Reply p where p.request = r))
+            from Request r join r.owner o
+            order by r.id
+            """)
+    Stream<ListingDtos.RequestExportRow> streamExportRows();
 }
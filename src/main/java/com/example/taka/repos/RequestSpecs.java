@@ -0,0 +1,37 @@
+package com.example.taka.repos;
+
+import com.example.taka.models.Request;
+import com.example.taka.models.RequestStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+
+/*
+ * Single-predicate building blocks for filtered request queries.
+ * Callers compose only the ones a client supplied (see ListingService.filterRequests);
+ * each maps onto an index from db/migration V3.
+ */
+public final class RequestSpecs {
+
+    private RequestSpecs(){}
+
+    public static Specification<Request> categoryIs(String category){
+        return (root, query, cb) -> cb.equal(root.get("category"), category);
+    }
+
+    public static Specification<Request> locationIs(String location){
+        return (root, query, cb) -> cb.equal(root.get("location"), location);
+    }
+
+    public static Specification<Request> priceAtLeast(BigDecimal minPrice){
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("offerPrice"), minPrice);
+    }
+
+    public static Specification<Request> priceAtMost(BigDecimal maxPrice){
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("offerPrice"), maxPrice);
+    }
+
+    public static Specification<Request> statusIs(RequestStatus status){
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+}
@@ -12,4 +12,7 @@ public interface UserProfileRepository extends JpaRepository<UserProfile, Long>
 
     Optional<UserProfile> findByEmail(String email);
 
+    //only users whose tokens were ever revoked, used to seed TokenVersionRegistry at startup
+    List<UserProfile> findByTokenVersionGreaterThan(int tokenVersion);
+
 }
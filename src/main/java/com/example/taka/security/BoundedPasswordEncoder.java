@@ -0,0 +1,117 @@
+package com.example.taka.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Runs every hash and hash check of the delegate (BCrypt) on a small pool of its own, one thread per
+ * core, with at most queueCapacity calls waiting. Login and register bursts therefore cost a fixed
+ * amount of CPU; the calling (virtual) thread only parks until its hash is done, and request threads
+ * serving everything else are never tied up hashing.
+ *
+ * When the queue is full the call fails straight away with 429 and Retry-After instead of piling up.
+ * upgradeEncoding is cheap (it only reads the stored hash) and runs on the caller.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, MeterRegistry meterRegistry){
+        this.delegate = delegate;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.encodeTimer = Timer.builder("auth.password.hash").tag("op", "encode")
+                .description("time to hash a password, queueing included").register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.password.hash").tag("op", "matches")
+                .description("time to check a password, queueing included").register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.hash.rejected")
+                .description("hash calls turned away with 429 because the queue was full").register(meterRegistry);
+        Gauge.builder("auth.password.hash.queue", executor, e -> e.getQueue().size())
+                .description("hash calls waiting for a hashing thread").register(meterRegistry);
+        Gauge.builder("auth.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("hashing threads busy").register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword){
+        return encodeTimer.record(() -> run(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword){
+        return matchesTimer.record(() -> run(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword){
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void close(){
+        executor.shutdown();
+    }
+
+    private <T> T run(Callable<T> hashing){
+        Future<T> result;
+        try{
+            result = executor.submit(hashing);
+        }catch(RejectedExecutionException ex){
+            rejected.increment();
+            throw new OverloadedException();
+        }
+        try{
+            return result.get();
+        }catch(InterruptedException ex){
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", ex);
+        }catch(ExecutionException ex){
+            if(ex.getCause() instanceof RuntimeException runtime){
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", ex.getCause());
+        }
+    }
+
+    /* 429 with Retry-After; raised from AuthenticationManager.authenticate as well, it is not an AuthenticationException*/
+    public static class OverloadedException extends ResponseStatusException {
+        public OverloadedException(){
+            super(HttpStatus.TOO_MANY_REQUESTS, "Too many sign-ins right now, retry shortly");
+        }
+
+        @Override
+        public HttpHeaders getHeaders(){
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            return headers;
+        }
+    }
+}
@@ -6,11 +6,13 @@ import io.jsonwebtoken.Claims;
 
 import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.*;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -26,6 +28,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersions;
+    private final RevokedTokenRegistry revokedTokens;
+
+    //build the principal straight from token claims instead of loading the user on every request
+    @Value("${app.security.stateless-auth:true}")
+    private boolean statelessAuth = true;
 
     @Override
     protected void doFilterInternal(
@@ -37,28 +45,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         //get auth header & check if it starts with "Bearer"
         final String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
-        String email = null;
-        String jwtToken = null;
+        VerifiedToken verified = null;
 
         if(authHeader != null && authHeader.startsWith("Bearer")){
-            jwtToken = authHeader.substring(7);
+            String jwtToken = authHeader.substring(7);
 
-            //validate token & extract email
-//            if(jwtUtil.validateToken(jwtToken)){
-//                email = jwtUtil.ExtractEmail(jwtToken);
-//            }
+            //verify signature + expiry once, the result carries the email for the rest of the request
             try{
-                email = jwtUtil.ExtractEmail(jwtToken);
+                verified = jwtUtil.verify(jwtToken);
             }catch(JwtException | IllegalArgumentException ex){
                 logger.warn("invalid JWT: ");
             }
+            //logged out before it expired; an in-memory lookup, no DB
+            if(verified != null && revokedTokens.isRevoked(verified.tokenId())){
+                logger.debug("revoked JWT " + verified.tokenId());
+                verified = null;
+            }
         }
 
-        //if it has email but no exisiting authentication, load user details
-        if(email != null && SecurityContextHolder.getContext().getAuthentication() ==null){
-            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+        //if it has a verified token but no exisiting authentication, resolve the user
+        if(verified != null && SecurityContextHolder.getContext().getAuthentication() ==null){
+            UserDetails userDetails = resolveUser(verified);
 
-            if(jwtUtil.validateToken(jwtToken, userDetails.getUsername())){
+            if(userDetails != null && verified.email().equals(userDetails.getUsername())){
 
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
@@ -73,4 +82,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /*
+     * Tokens with role/uid/ver claims are trusted as-is once their version is still current.
+     * Older tokens without those claims (or stateless mode switched off) fall back to the DB.
+     * Returns null when the token has been revoked.
+     */
+    private UserDetails resolveUser(VerifiedToken verified){
+        if(!statelessAuth || !verified.hasUserClaims()){
+            return userDetailsService.loadUserByUsername(verified.email());
+        }
+        if(!tokenVersions.isCurrent(verified.userId(), verified.tokenVersion(), verified.issuedAt())){
+            logger.debug("revoked JWT for user " + verified.userId());
+            return null;
+        }
+        return User.withUsername(verified.email())
+                .password("")
+                .authorities(verified.role())
+                .disabled(!verified.enabled())
+                .build();
+    }
+
 }
@@ -1,5 +1,9 @@
 package com.example.taka.security;
 
+import com.example.taka.models.UserProfile;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -10,22 +14,61 @@ import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
+    public static final String ROLE_CLAIM = "role";
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ENABLED_CLAIM = "enabled";
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+
     @Value("${jwt.secret}")
     private String secretKey;
 
+    //access token lifetime; kept short, clients renew through POST /api/auth/refresh
     @Value("${jwt.expiration-ms}")
     private long expirationMs;
 
+    //how many verified tokens to remember, so repeat callers skip the HMAC check
+    @Value("${jwt.verified-cache-size:10000}")
+    private long verifiedCacheSize = 10_000;
+
     //creating a signing key from secret
     private Key signingKey;
 
+    //parser is immutable & thread safe, build it once instead of per call
+    private JwtParser parser;
+
+    //token string -> verified result. Entries expire together with the token
+    private Cache<String, VerifiedToken> verifiedTokens;
+
     @PostConstruct
     public void init(){
         this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith((SecretKey) signingKey).clockSkewSeconds(1).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), verified.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
 
@@ -35,6 +78,7 @@ public class JwtUtil {
         Date expiry = new Date(now.getTime() + expirationMs);
 
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(email)
                 .issuedAt(now)
                 .expiration(expiry)
@@ -42,6 +86,50 @@ public class JwtUtil {
                 .compact();
     }
 
+    //generate jwt token carrying the claims the filter needs to authenticate without a DB lookup
+    public String generateToken(UserProfile user){
+        Date now = new Date(); //Issued at
+        Date expiry = new Date(now.getTime() + expirationMs);
+
+        //jti: lets a single token be revoked (RevokedTokenRegistry)
+        return Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .subject(user.getEmail())
+                .claim(ROLE_CLAIM, user.getUser_role().name())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(ENABLED_CLAIM, user.isEnabled())
+                .claim(TOKEN_VERSION_CLAIM, user.getTokenVersion())
+                .issuedAt(now)
+                .expiration(expiry)
+                .signWith(signingKey)
+                .compact();
+    }
+
+    public long getExpirationMs(){
+        return expirationMs;
+    }
+
+    /*
+     * Verify signature + expiry once and return everything the filter needs.
+     * Tokens seen before are answered from the cache until they expire.
+     * Throws JwtException (incl. ExpiredJwtException) or IllegalArgumentException for bad tokens.
+     */
+    public VerifiedToken verify(String token){
+        VerifiedToken cached = verifiedTokens.getIfPresent(token);
+        if(cached != null && !cached.isExpired()){
+            return cached;
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        VerifiedToken verified = VerifiedToken.from(claims);
+        //parser tolerates clock skew, expiry itself stays strict
+        if(verified.isExpired()){
+            throw new ExpiredJwtException(null, claims, "JWT expired at " + verified.expiresAt());
+        }
+        verifiedTokens.put(token, verified);
+        return verified;
+    }
+
     //extract email (subject) from a token
     public String ExtractEmail(String token){
         return extractAllClaims(token).getSubject();
@@ -55,8 +143,7 @@ public class JwtUtil {
     //validate token -> signature + expiration
     public boolean validateToken(String token, String userEmail){
         try{
-            String email = ExtractEmail(token);
-            return (email.equals(userEmail) && !isTokenExpired(token));
+            return verify(token).email().equals(userEmail);
         }catch(JwtException | IllegalArgumentException e){
             return false;
         }
@@ -64,7 +151,7 @@ public class JwtUtil {
 
     public Claims extractAllClaims(String token){
         try{
-            return Jwts.parser().verifyWith((SecretKey) signingKey).clockSkewSeconds(1).build().parseSignedClaims(token).getPayload();
+            return parser.parseSignedClaims(token).getPayload();
         }catch(ExpiredJwtException eje){
             return eje.getClaims();
         }
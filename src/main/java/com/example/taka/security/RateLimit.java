@@ -0,0 +1,55 @@
+package com.example.taka.security;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * capacity calls per period, in bursts of up to capacity: a token bucket refilled at capacity/period.
+ *
+ * The bucket is kept as one AtomicLong per caller (GCRA): the time at which it will be full again.
+ * tryAcquire is a read, a compare and one CAS, no lock and no allocation.
+ */
+public record RateLimit(int capacity, Duration period) {
+
+    public RateLimit {
+        if(capacity < 1 || period.isNegative() || period.isZero()){
+            throw new IllegalArgumentException("Rate limit needs capacity >= 1 and a positive period: " + capacity + "/" + period);
+        }
+    }
+
+    //"10/1m", "300/30s"
+    public static RateLimit parse(String spec){
+        int slash = spec.indexOf('/');
+        if(slash < 0){
+            throw new IllegalArgumentException("Rate limit must look like <calls>/<period>, e.g. 10/1m: " + spec);
+        }
+        return new RateLimit(Integer.parseInt(spec.substring(0, slash).trim()), DurationStyle.detectAndParse(spec.substring(slash + 1).trim()));
+    }
+
+    //fresh state for a caller that has not been seen (or has been idle for a whole period)
+    public static AtomicLong newBucket(){
+        return new AtomicLong(Long.MIN_VALUE);
+    }
+
+    /*
+     * Takes one token at nowNanos (System.nanoTime). Returns 0 when the call may go ahead,
+     * otherwise how many nanoseconds until a token is available; nothing is taken then.
+     */
+    public long tryAcquire(AtomicLong bucket, long nowNanos){
+        long interval = period.toNanos() / capacity;
+        long burst = interval * (capacity - 1);
+        while(true){
+            long fullAt = bucket.get();
+            long start = Math.max(fullAt, nowNanos);
+            long wait = start - burst - nowNanos;
+            if(wait > 0){
+                return wait;
+            }
+            if(bucket.compareAndSet(fullAt, start + interval)){
+                return 0;
+            }
+        }
+    }
+}
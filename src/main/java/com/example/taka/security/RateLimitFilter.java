@@ -0,0 +1,133 @@
+package com.example.taka.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Per-caller rate limits on the expensive routes: login/register (BCrypt), bulk inserts and the
+ * search/filter/geo reads. Runs right after JwtAuthenticationFilter (see SecurityConfig), so signed-in
+ * callers are limited per user and everybody else per client IP (behind a proxy, set
+ * server.forward-headers-strategy so that is the real client).
+ *
+ * Each route keeps its own buckets (RateLimit) in a bounded Caffeine map; a bucket idle for a whole
+ * period is full again anyway and is dropped. Over the limit: 429 with Retry-After in seconds.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    /* one limited route: the requests it covers and the buckets of its callers*/
+    record Route(String name, String method, Set<String> paths, RateLimit limit, Cache<String, AtomicLong> buckets, Counter rejected){
+
+        boolean matches(String method, String path){
+            return this.method.equals(method) && paths.contains(path);
+        }
+    }
+
+    private final boolean enabled;
+    private final List<Route> routes;
+
+    public RateLimitFilter(
+            @Value("${app.ratelimit.enabled:true}") boolean enabled,
+            @Value("${app.ratelimit.login:10/1m}") String login,
+            @Value("${app.ratelimit.batch:5/1m}") String batch,
+            @Value("${app.ratelimit.search:60/1m}") String search,
+            @Value("${app.ratelimit.max-keys:100000}") long maxKeys,
+            ObjectProvider<MeterRegistry> meterRegistry){
+        this.enabled = enabled;
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        this.routes = List.of(
+                route("login", "POST", Set.of("/api/auth/login", "/api/auth/register"), login, maxKeys, registry),
+                route("batch", "POST", Set.of("/api/requests/batch", "/api/requests/import"), batch, maxKeys, registry),
+                route("search", "GET", Set.of("/api/requests/search", "/api/requests/search/title", "/api/requests/filter",
+                        "/api/requests/nearby", "/api/requests/within"), search, maxKeys, registry));
+    }
+
+    private static Route route(String name, String method, Set<String> paths, String spec, long maxKeys, MeterRegistry registry){
+        RateLimit limit = RateLimit.parse(spec);
+        Cache<String, AtomicLong> buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(limit.period())
+                .build();
+        Counter rejected = registry == null ? null : Counter.builder("http.ratelimit.rejected")
+                .description("requests turned away with 429").tag("route", name).register(registry);
+        return new Route(name, method, paths, limit, buckets, rejected);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request){
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException{
+        Route route = match(request);
+        if(route != null){
+            AtomicLong bucket = route.buckets().get(callerKey(request), key -> RateLimit.newBucket());
+            long waitNanos = route.limit().tryAcquire(bucket, System.nanoTime());
+            if(waitNanos > 0){
+                reject(route, response, waitNanos);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private Route match(HttpServletRequest request){
+        String method = request.getMethod();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for(Route route : routes){
+            if(route.matches(method, path)){
+                return route;
+            }
+        }
+        return null;
+    }
+
+    //the user set by JwtAuthenticationFilter, else the client address
+    private static String callerKey(HttpServletRequest request){
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if(auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)){
+            return "user:" + auth.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static void reject(Route route, HttpServletResponse response, long waitNanos) throws IOException{
+        if(route.rejected() != null){
+            route.rejected().increment();
+        }
+        long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        //same shape as GlobalExceptionHandler.GenericErrorResponse
+        response.getWriter().write("{\"error\":\"Too many requests, retry in " + retryAfter + "s\"}");
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.taka.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Access tokens revoked before they expire (logout), checked by JwtAuthenticationFilter on every
+ * request without touching the database.
+ *
+ * Only a 64-bit hash of the token id (jti) is kept, with the token's expiry; entries are swept once the
+ * token would have expired anyway, so the set never holds more than one access-token lifetime of
+ * logouts. In memory only: after a restart a revoked token is accepted again until it expires.
+ */
+@Component
+public class RevokedTokenRegistry {
+    //jti hash -> token expiry, epoch millis
+    private final Map<Long, Long> revoked = new ConcurrentHashMap<>();
+
+    public RevokedTokenRegistry(MeterRegistry meterRegistry){
+        Gauge.builder("auth.tokens.revoked", revoked, Map::size)
+                .description("revoked access tokens not yet expired").register(meterRegistry);
+    }
+
+    public void revoke(String tokenId, Instant expiresAt){
+        if(tokenId != null && expiresAt.isAfter(Instant.now())){
+            revoked.put(key(tokenId), expiresAt.toEpochMilli());
+        }
+    }
+
+    //tokens without an id (issued before ids were added) can only expire
+    public boolean isRevoked(String tokenId){
+        return tokenId != null && revoked.containsKey(key(tokenId));
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.revocation.sweep-interval:1m}")
+    public void sweep(){
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+
+    int size(){
+        return revoked.size();
+    }
+
+    //FNV-1a 64; a collision only logs out the other token's holder early
+    static long key(String tokenId){
+        long hash = 0xcbf29ce484222325L;
+        for(byte b : tokenId.getBytes(StandardCharsets.UTF_8)){
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
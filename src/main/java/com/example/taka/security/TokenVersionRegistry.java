@@ -0,0 +1,68 @@
+package com.example.taka.security;
+
+import com.example.taka.models.UserProfile;
+import com.example.taka.repos.UserProfileRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * In-memory view of UserProfile.tokenVersion so JwtAuthenticationFilter can reject
+ * revoked tokens without querying the database.
+ * Only users whose version was ever bumped are tracked; everybody else is at version 0.
+ *
+ * Deleted users leave no row to load at startup. So a token issued before this instance started, for a
+ * user not tracked yet, has its user looked up once: gone means revoked for good. Tokens issued since
+ * startup need no lookup, revokeAll saw their user's deletion. Access tokens expire, so the lookups stop
+ * one token lifetime after startup.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenVersionRegistry {
+    private final UserProfileRepository userProfileRepo;
+
+    private final Instant startedAt = Instant.now();
+    //userId -> lowest token version still accepted
+    private final Map<Long, Integer> minimumVersions = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load(){
+        for(UserProfile user : userProfileRepo.findByTokenVersionGreaterThan(0)){
+            minimumVersions.put(user.getId(), user.getTokenVersion());
+        }
+        log.info("loaded token versions for {} users", minimumVersions.size());
+    }
+
+    //issuedAt may be null (token without iat), it is then treated as issued before startup
+    public boolean isCurrent(Long userId, int tokenVersion, Instant issuedAt){
+        Integer minimum = minimumVersions.get(userId);
+        if(minimum == null && (issuedAt == null || issuedAt.isBefore(startedAt))){
+            minimum = lookUp(userId);
+        }
+        return tokenVersion >= (minimum == null ? 0 : minimum);
+    }
+
+    //invalidate every token issued so far for this user. Caller persists the entity
+    public void bump(UserProfile user){
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        minimumVersions.merge(user.getId(), user.getTokenVersion(), Math::max);
+    }
+
+    //user is gone, nothing issued for this id may be used again. After a restart the lookup in isCurrent takes over
+    public void revokeAll(Long userId){
+        minimumVersions.put(userId, Integer.MAX_VALUE);
+    }
+
+    //max: a revokeAll or bump racing the lookup is never overwritten by the older value read here
+    private int lookUp(Long userId){
+        int minimum = userProfileRepo.findById(userId).map(UserProfile::getTokenVersion).orElse(Integer.MAX_VALUE);
+        return minimumVersions.merge(userId, minimum, Math::max);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.taka.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+
+/*
+ * Result of verifying a JWT once: signature checked, not expired.
+ * Produced by JwtUtil.verify and passed along so nothing has to parse the token again.
+ * userId/enabled/tokenVersion/tokenId are null on tokens issued before they were added as claims.
+ */
+public record VerifiedToken(
+        String email,
+        Instant expiresAt,
+        Instant issuedAt,
+        String role,
+        Long userId,
+        Boolean enabled,
+        Integer tokenVersion,
+        String tokenId
+) {
+
+    static VerifiedToken from(Claims claims){
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.getExpiration().toInstant(),
+                claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant(),
+                claims.get(JwtUtil.ROLE_CLAIM, String.class),
+                claims.get(JwtUtil.USER_ID_CLAIM, Long.class),
+                claims.get(JwtUtil.ENABLED_CLAIM, Boolean.class),
+                claims.get(JwtUtil.TOKEN_VERSION_CLAIM, Integer.class),
+                claims.getId()
+        );
+    }
+
+    public boolean isExpired(){
+        return !expiresAt.isAfter(Instant.now());
+    }
+
+    //true when the token carries everything needed to build the principal without a DB lookup
+    public boolean hasUserClaims(){
+        return role != null && userId != null && enabled != null && tokenVersion != null;
+    }
+}
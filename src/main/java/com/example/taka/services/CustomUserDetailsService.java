@@ -6,6 +6,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -13,8 +14,9 @@ import org.springframework.stereotype.Service;
 import java.util.Collections;
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     private final UserProfileRepository userProfileRepo;
+    private final UserProfileCache userCache;
 
 
     @Override
@@ -34,4 +36,18 @@ public class CustomUserDetailsService implements UserDetailsService {
         );
     }
 
+    /*
+     * Called by Spring Security after a successful login whose stored hash is weaker than the configured
+     * app.security.bcrypt.strength (PasswordEncoder.upgradeEncoding); newPassword is the rehashed password.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword){
+        UserProfile profile = userProfileRepo.findByEmail(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: "+user.getUsername()));
+        profile.setPasswordHarsh(newPassword);
+        userProfileRepo.save(profile);
+        userCache.evict(profile);
+        return User.withUserDetails(user).password(newPassword).build();
+    }
+
 }
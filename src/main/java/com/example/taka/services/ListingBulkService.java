@@ -0,0 +1,321 @@
+package com.example.taka.services;
+
+import com.example.taka.dto.ListingDtos;
+import com.example.taka.models.UserProfile;
+import com.example.taka.repos.RequestRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Stream;
+
+/*
+ * Bulk import/export of listings.
+ * Both directions stream: import reads one NDJSON line at a time, export writes rows as they
+ * come off a forward-only cursor, so memory stays bounded whatever the data size.
+ */
+@Service
+@Slf4j
+public class ListingBulkService {
+    public enum ExportFormat { NDJSON, CSV }
+
+    private static final String[] CSV_HEADER = {"id", "title", "description", "imageUrl", "offerPrice", "category",
+            "location", "createdAt", "updatedAt", "status", "contentStatus", "ownerEmail", "replyCount"};
+
+    private final ListingService listingService;
+    private final RequestRepository requestRepo;
+    private final Validator validator;
+    private final ObjectReader dtoReader;
+    private final ObjectWriter lineWriter;
+
+    //lines buffered before their valid rows are written in one transaction/JDBC batch
+    @Value("${app.import.chunk-size:500}")
+    private int chunkSize = 500;
+
+    //longest accepted NDJSON line in bytes; a longer line is skipped and reported instead of buffered whole
+    @Value("${app.import.max-line-length:65536}")
+    private int maxLineLength = 65536;
+
+    public ListingBulkService(ListingService listingService, RequestRepository requestRepo, Validator validator, ObjectMapper objectMapper){
+        this.listingService = listingService;
+        this.requestRepo = requestRepo;
+        this.validator = validator;
+        this.dtoReader = objectMapper.readerFor(ListingDtos.CreateRequestDto.class);
+        this.lineWriter = objectMapper.writer();
+    }
+
+    /*
+     * Reads NDJSON CreateRequestDto lines from in and writes one ImportLineResult per
+     * non-blank input line to out, in input order, followed by an ImportSummary.
+     * Valid lines are saved chunkSize at a time through ListingService.saveRequestsBatch;
+     * a failing chunk marks its own lines as failed and the import carries on.
+     * A line longer than maxLineLength, or one that is not a JSON object, is reported INVALID.
+     *
+     * Lines are split by hand (LineReader) rather than by one MappingIterator over the body: after a
+     * syntax error the parser cannot find the next document again, the line boundary can.
+     */
+    public ListingDtos.ImportSummary importRequests(InputStream in, OutputStream out, UserProfile owner) throws IOException{
+        LineReader reader = new LineReader(in, maxLineLength);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        Chunk chunk = new Chunk();
+        long lineNo = 0, lines = 0, created = 0, failed = 0;
+
+        while(reader.next()){
+            lineNo++;
+            if(reader.isBlank()){
+                continue;
+            }
+            lines++;
+
+            ListingDtos.CreateRequestDto dto = null;
+            Map<String, String> errors;
+            if(reader.tooLong){
+                errors = Map.of("line", "longer than " + maxLineLength + " bytes");
+            }else{
+                try{
+                    dto = dtoReader.readValue(reader.line, 0, reader.length);
+                    //a literal null parses fine but is no listing
+                    errors = dto == null ? Map.of("line", "expected a JSON object") : validate(dto);
+                }catch(JsonProcessingException ex){
+                    errors = Map.of("line", "malformed JSON: " + ex.getOriginalMessage());
+                }
+            }
+            chunk.add(lineNo, errors.isEmpty() ? dto : null, errors);
+
+            if(chunk.size() >= chunkSize){
+                ChunkOutcome outcome = flush(chunk, owner, writer);
+                created += outcome.created();
+                failed += outcome.failed();
+                chunk = new Chunk();
+            }
+        }
+        ChunkOutcome outcome = flush(chunk, owner, writer);
+        created += outcome.created();
+        failed += outcome.failed();
+
+        ListingDtos.ImportSummary summary = new ListingDtos.ImportSummary(lines, created, failed);
+        writeLine(writer, summary);
+        writer.flush();
+        return summary;
+    }
+
+    /*
+     * Writes every request (with its reply count) to out as NDJSON or CSV, straight from a
+     * database cursor. Returns the number of rows written.
+     */
+    @Transactional(readOnly = true)
+    public long exportRequests(ExportFormat format, OutputStream out) throws IOException{
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if(format == ExportFormat.CSV){
+            writeCsvLine(writer, CSV_HEADER);
+        }
+
+        long rows = 0;
+        try(Stream<ListingDtos.RequestExportRow> stream = requestRepo.streamExportRows()){
+            Iterator<ListingDtos.RequestExportRow> it = stream.iterator();
+            while(it.hasNext()){
+                ListingDtos.RequestExportRow row = it.next();
+                if(format == ExportFormat.CSV){
+                    writeCsvLine(writer, csvValues(row));
+                }else{
+                    writeLine(writer, row);
+                }
+                rows++;
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private ChunkOutcome flush(Chunk chunk, UserProfile owner, Writer writer) throws IOException{
+        List<ListingDtos.CreateRequestDto> valid = chunk.validDtos();
+        List<ListingDtos.ResponseToRequestDto> saved = List.of();
+        String chunkError = null;
+        if(!valid.isEmpty()){
+            try{
+                saved = listingService.saveRequestsBatch(valid, owner);
+            }catch(RuntimeException ex){
+                log.warn("import chunk of {} rows failed", valid.size(), ex);
+                chunkError = "not saved: " + ex.getMessage();
+            }
+        }
+
+        long created = 0, failed = 0;
+        Iterator<ListingDtos.ResponseToRequestDto> ids = saved.iterator();
+        for(Entry entry : chunk.entries){
+            if(entry.dto() == null){
+                writeLine(writer, new ListingDtos.ImportLineResult(entry.line(), "INVALID", null, entry.errors()));
+                failed++;
+            }else if(chunkError != null){
+                writeLine(writer, new ListingDtos.ImportLineResult(entry.line(), "FAILED", null, Map.of("line", chunkError)));
+                failed++;
+            }else{
+                writeLine(writer, new ListingDtos.ImportLineResult(entry.line(), "CREATED", ids.next().id(), null));
+                created++;
+            }
+        }
+        writer.flush();
+        return new ChunkOutcome(created, failed);
+    }
+
+    private Map<String, String> validate(ListingDtos.CreateRequestDto dto){
+        Set<ConstraintViolation<ListingDtos.CreateRequestDto>> violations = validator.validate(dto);
+        if(violations.isEmpty()){
+            return Map.of();
+        }
+        Map<String, String> errors = new TreeMap<>();
+        for(ConstraintViolation<ListingDtos.CreateRequestDto> v : violations){
+            errors.put(v.getPropertyPath().toString(), v.getMessage());
+        }
+        return errors;
+    }
+
+    private void writeLine(Writer writer, Object value) throws IOException{
+        writer.write(lineWriter.writeValueAsString(value));
+        writer.write('\n');
+    }
+
+    private static String[] csvValues(ListingDtos.RequestExportRow row){
+        return new String[]{
+                String.valueOf(row.id()), row.title(), row.description(), row.imageUrl(),
+                row.offerPrice() == null ? null : row.offerPrice().toPlainString(),
+                row.category(), row.location(),
+                row.createdAt() == null ? null : row.createdAt().toString(),
+                row.updatedAt() == null ? null : row.updatedAt().toString(),
+                row.status(), row.contentStatus(), row.ownerEmail(), String.valueOf(row.replyCount())
+        };
+    }
+
+    //RFC 4180: quote fields containing separators, quotes or line breaks; nulls are empty
+    private static void writeCsvLine(Writer writer, String[] values) throws IOException{
+        for(int i = 0; i < values.length; i++){
+            if(i > 0){
+                writer.write(',');
+            }
+            String value = values[i];
+            if(value == null){
+                continue;
+            }
+            if(value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0){
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            }else{
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    // ------------ line splitting --------------------------------------------
+
+    /*
+     * NDJSON lines as raw UTF-8 bytes, read from the stream a buffer at a time; Jackson binds straight from
+     * the bytes. A 0x0A byte never occurs inside a multi-byte UTF-8 sequence, so splitting on it is safe.
+     * Lines end in \n or \r\n. At most maxLength bytes of a line are kept, the rest is read past.
+     */
+    private static final class LineReader {
+        private final InputStream in;
+        private final int maxLength;
+        private final byte[] buffer = new byte[8192];
+        private int pos, limit;
+
+        byte[] line = new byte[256];
+        int length;
+        boolean tooLong;
+
+        LineReader(InputStream in, int maxLength){
+            this.in = in;
+            this.maxLength = maxLength;
+        }
+
+        //moves to the next line, false at the end of input
+        boolean next() throws IOException{
+            length = 0;
+            tooLong = false;
+            boolean read = false;
+            while(true){
+                if(pos == limit){
+                    limit = Math.max(in.read(buffer), 0);
+                    pos = 0;
+                    if(limit == 0){
+                        return read;
+                    }
+                }
+                read = true;
+                int start = pos;
+                while(pos < limit && buffer[pos] != '\n'){
+                    pos++;
+                }
+                append(start, pos - start);
+                if(pos < limit){
+                    pos++;
+                    if(!tooLong && length > 0 && line[length - 1] == '\r'){
+                        length--;
+                    }
+                    return true;
+                }
+            }
+        }
+
+        boolean isBlank(){
+            if(tooLong){
+                return false;
+            }
+            for(int i = 0; i < length; i++){
+                if(line[i] != ' ' && line[i] != '\t' && line[i] != '\r'){
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void append(int from, int count){
+            int kept = Math.min(count, maxLength - length);
+            if(kept < count){
+                tooLong = true;
+            }
+            if(kept <= 0){
+                return;
+            }
+            if(length + kept > line.length){
+                line = Arrays.copyOf(line, Math.min(maxLength, Math.max(line.length * 2, length + kept)));
+            }
+            System.arraycopy(buffer, from, line, length, kept);
+            length += kept;
+        }
+    }
+
+    // ------------ chunk bookkeeping -----------------------------------------
+
+    private record Entry(long line, ListingDtos.CreateRequestDto dto, Map<String, String> errors){}
+
+    private record ChunkOutcome(long created, long failed){}
+
+    //lines since the last flush, valid and invalid, kept in input order
+    private static class Chunk {
+        private final List<Entry> entries = new ArrayList<>();
+
+        void add(long line, ListingDtos.CreateRequestDto dto, Map<String, String> errors){
+            entries.add(new Entry(line, dto, errors));
+        }
+
+        int size(){
+            return entries.size();
+        }
+
+        List<ListingDtos.CreateRequestDto> validDtos(){
+            return entries.stream().map(Entry::dto).filter(Objects::nonNull).toList();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.taka.services;
+
+import java.time.LocalDateTime;
+
+/*
+ * A committed change to a request or one of its replies, as handed to ListingEventSubscribers.
+ * id is the outbox row id: unique per event, it identifies redeliveries.
+ * payload is JSON: the request / reply dto, {"id", "contentStatus"} for moderation or {"id"} for deletes.
+ */
+public record ListingEvent(Long id, Type type, Long requestId, String payload, LocalDateTime occurredAt){
+
+    public enum Type {
+        REQUEST_CREATED,
+        REQUEST_UPDATED,
+        REQUEST_MODERATED,
+        REQUEST_DELETED,
+        REPLY_CREATED,
+        REPLY_UPDATED,
+        REPLY_DELETED
+    }
+}
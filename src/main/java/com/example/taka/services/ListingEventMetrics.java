@@ -0,0 +1,22 @@
+package com.example.taka.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+//listing.events{type=...}: committed listing changes per type, counted off the request thread from the outbox
+@Component
+@RequiredArgsConstructor
+public class ListingEventMetrics implements ListingEventSubscriber {
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void onListingEvent(ListingEvent event){
+        Counter.builder("listing.events")
+                .description("committed listing changes")
+                .tag("type", event.type().name())
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.taka.services;
+
+/*
+ * Downstream consumer of listing changes: every bean of this type is called by OutboxRelay, off the
+ * request thread, for every committed change.
+ *
+ * Delivery is at least once: throwing makes the relay retry the event later (for every subscriber), and
+ * a crash between delivery and cleanup delivers it again, so handlers must be idempotent (ListingEvent.id).
+ * An event that keeps failing is parked after app.outbox.max-attempts and not delivered again.
+ * Events of one request arrive in outbox id order; a failing event holds back the later events of its
+ * request only. Id order is write order, not commit order, for concurrent writers (see OutboxRelay).
+ */
+public interface ListingEventSubscriber {
+
+    void onListingEvent(ListingEvent event);
+}
@@ -0,0 +1,39 @@
+package com.example.taka.services;
+
+import com.example.taka.models.OutboxEvent;
+import com.example.taka.repos.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/*
+ * Write side of the transactional outbox. ListingService records every change here inside its own
+ * transaction, so the event exists exactly when the change commits; OutboxRelay delivers it later.
+ */
+@Component
+@RequiredArgsConstructor
+public class ListingOutbox {
+    private final OutboxEventRepository outboxRepo;
+    private final ObjectMapper objectMapper;
+
+    //MANDATORY: an event written outside the change's transaction could survive a rolled back change
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(ListingEvent.Type type, Long requestId, Object payload){
+        outboxRepo.save(OutboxEvent.builder()
+                .aggregateId(requestId)
+                .eventType(type.name())
+                .payload(toJson(payload))
+                .build());
+    }
+
+    private String toJson(Object payload){
+        try{
+            return objectMapper.writeValueAsString(payload);
+        }catch(JsonProcessingException ex){
+            throw new IllegalStateException("Cannot serialize outbox payload " + payload.getClass().getSimpleName(), ex);
+        }
+    }
+}
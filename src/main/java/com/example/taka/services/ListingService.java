@@ -1,29 +1,72 @@
 package com.example.taka.services;
 
 import com.example.taka.dto.ListingDtos;
+import com.example.taka.models.ContentStatus;
 import com.example.taka.models.Reply;
 import com.example.taka.models.Request;
 import com.example.taka.models.UserProfile;
 import com.example.taka.repos.RequestRepository;
 import com.example.taka.repos.ReplyRepository;
+import com.example.taka.repos.RequestSpecs;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class ListingService {
+    static final int MAX_FEED_PAGE_SIZE = 100;
+    static final int MAX_REPLY_PAGE_SIZE = 100;
+    static final double MAX_RADIUS_KM = 500;
+    //widest viewport /within accepts, per axis; about the 1000 km across /nearby allows
+    static final double MAX_BOX_DEGREES = 10;
+    static final int MAX_NEARBY_RESULTS = 100;
+    //reply columns a client may sort on; id is always appended as tie-breaker
+    private static final Set<String> REPLY_SORT_FIELDS = Set.of("price", "createdAt");
+    //request columns the filter endpoint may sort on
+    private static final Set<String> FILTER_SORT_FIELDS = Set.of("createdAt", "offerPrice", "title", "id");
+
     private final RequestRepository requestRepo;
     private final ReplyRepository replyRepo;
     private final UserProfileService userService;
+    private final RequestSearchIndex searchIndex;
+    private final RequestGeoIndex geoIndex;
+    private final RequestDetailCache detailCache;
+    private final ListingVersions listingVersions;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ListingOutbox outbox;
+
+    //rows persisted between flush/clear in batch ingest; matches hibernate.jdbc.batch_size
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize = 50;
 
 
     // -------------------Mapping DTO -> Entity ------------------------------------
@@ -37,6 +80,8 @@ public class ListingService {
                 .offerPrice(dto.offerPrice())
                 .category(dto.category())
                 .location(dto.location())
+                .latitude(dto.latitude())
+                .longitude(dto.longitude())
                 .build();
     }
 
@@ -64,8 +109,39 @@ public class ListingService {
 
     // ------------CRUD for Request ----------------------------------------------
 
+    //projection query: owner email comes from a join, no per-row owner load
     public Page<ListingDtos.ResponseToRequestDto> findAllRequests(Pageable pageable){
-        return requestRepo.findAll(pageable).map(this::toRequestDto);
+        Page<ListingDtos.ResponseToRequestDto> page = requestRepo.findAllRequestDtos(pageable);
+        return new PageImpl<>(withReplyStats(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    /*
+     * Cursor feed, newest first. The cursor is an opaque token holding the (createdAt, id)
+     * of the last row returned; one extra row is fetched to know whether there is a next page.
+     */
+    public ListingDtos.CursorPage<ListingDtos.ResponseToRequestDto> findRequestFeed(String cursor, int size){
+        int limit = Math.min(Math.max(size, 1), MAX_FEED_PAGE_SIZE);
+        Pageable fetch = PageRequest.of(0, limit + 1);
+
+        List<ListingDtos.ResponseToRequestDto> rows;
+        if(cursor == null || cursor.isBlank()){
+            rows = requestRepo.findFeed(fetch);
+        }else{
+            FeedPosition after = decodeCursor(cursor);
+            rows = requestRepo.findFeedAfter(after.createdAt(), after.id(), fetch);
+        }
+
+        if(rows.size() <= limit){
+            return new ListingDtos.CursorPage<>(withReplyStats(rows), null);
+        }
+        List<ListingDtos.ResponseToRequestDto> page = rows.subList(0, limit);
+        ListingDtos.ResponseToRequestDto last = page.get(limit - 1);
+        return new ListingDtos.CursorPage<>(withReplyStats(page), encodeCursor(last.createdAt(), last.id()));
+    }
+
+    //single request as returned by GET /{id}, reply aggregates included. Served from RequestDetailCache
+    public ListingDtos.ResponseToRequestDto getRequestDto(Long id){
+        return detailCache.get(id, requestId -> withReplyStats(toRequestDto(findRequestById(requestId))));
     }
 
     public Request findRequestById(Long id){
@@ -75,11 +151,59 @@ public class ListingService {
     }
 
 
+    /*
+     * Every write below records a ListingEvent in the outbox within its own transaction (see ListingOutbox).
+     * The search and geo indexes are still updated right after commit, so a user finds their own change at
+     * once; ListingViewSubscriber replays each change from the outbox and repairs an after-commit update
+     * that failed or was overtaken. New consumers subscribe (ListingEventSubscriber) rather than adding work here.
+     */
+    @Transactional
     public Request saveRequest(Request request){
-        return requestRepo.save(request);
+        Request saved = requestRepo.save(request);
+        outbox.record(ListingEvent.Type.REQUEST_CREATED, saved.getId(), toRequestDto(saved));
+        afterCommit(() -> {
+            searchIndex.index(saved);
+            geoIndex.index(saved);
+        });
+        return saved;
+    }
+
+    /*
+     * Bulk insert in one transaction. Rows are persisted through the EntityManager and
+     * flushed/cleared every batchSize rows, so Hibernate sends JDBC batches and the
+     * persistence context never holds more than one chunk.
+     * The search and geo indexes are only updated once the transaction has committed.
+     */
+    @Transactional
+    public List<ListingDtos.ResponseToRequestDto> saveRequestsBatch(List<ListingDtos.CreateRequestDto> dtos, UserProfile owner){
+        List<Request> saved = new ArrayList<>(dtos.size());
+        List<ListingDtos.ResponseToRequestDto> result = new ArrayList<>(dtos.size());
+
+        for(int i = 0; i < dtos.size(); i++){
+            Request request = fromRequestToDto(dtos.get(i), owner);
+            entityManager.persist(request);
+            saved.add(request);
+            ListingDtos.ResponseToRequestDto dto = toRequestDto(request);
+            result.add(dto);
+            outbox.record(ListingEvent.Type.REQUEST_CREATED, request.getId(), dto);
+
+            if((i + 1) % batchSize == 0){
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        afterCommit(() -> saved.forEach(request -> {
+            searchIndex.index(request);
+            geoIndex.index(request);
+        }));
+        return result;
     }
 
     //update request with new fields from Dto
+    @Transactional
     public Request updateRequest(Long id, ListingDtos.CreateRequestDto dto){
         Request existing = findRequestById(id);
 
@@ -89,27 +213,261 @@ public class ListingService {
         existing.setOfferPrice(dto.offerPrice());
         existing.setCategory(dto.category());
         existing.setLocation(dto.location());
+        existing.setLatitude(dto.latitude());
+        existing.setLongitude(dto.longitude());
         existing.setUpdatedAt(LocalDateTime.now());
         //owner, createdAt, status, remain unchanged.
-        return requestRepo.save(existing);
+        Request saved = requestRepo.save(existing);
+        outbox.record(ListingEvent.Type.REQUEST_UPDATED, id, toRequestDto(saved));
+        afterCommit(() -> {
+            searchIndex.index(saved);
+            geoIndex.index(saved);
+        });
+        onListingChanged(id);
+        return saved;
+    }
+
+    //admin moderation: hide, remove or restore a request
+    @Transactional
+    public Request moderateRequest(Long id, ContentStatus contentStatus){
+        Request existing = findRequestById(id);
+        existing.setContentStatus(contentStatus);
+        existing.setUpdatedAt(LocalDateTime.now());
+        Request saved = requestRepo.save(existing);
+        outbox.record(ListingEvent.Type.REQUEST_MODERATED, id, Map.of("id", id, "contentStatus", contentStatus.name()));
+        onListingChanged(id);
+        return saved;
     }
 
 
+    @Transactional
     public void deleteRequest(Long id){
         if(!requestRepo.existsById(id)){
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Request not found: "+id);
         };
         requestRepo.deleteById(id);
+        outbox.record(ListingEvent.Type.REQUEST_DELETED, id, Map.of("id", id));
+        afterCommit(() -> {
+            searchIndex.remove(id);
+            geoIndex.remove(id);
+        });
+        listingVersions.remove(id);
+        evictDetail(id);
     }
 
 
+    /*
+     * Server-side filtering: only the predicates the client supplied are composed, so the
+     * database can use the matching index (see RequestSpecs). Newest first unless sorted.
+     */
+    public Page<ListingDtos.ResponseToRequestDto> filterRequests(ListingDtos.RequestFilter filter, Pageable pageable){
+        if(filter.minPrice() != null && filter.maxPrice() != null && filter.minPrice().compareTo(filter.maxPrice()) > 0){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "minPrice must not exceed maxPrice");
+        }
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by(Sort.Direction.DESC, "createdAt");
+        for(Sort.Order order : sort){
+            if(!FILTER_SORT_FIELDS.contains(order.getProperty())){
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot sort requests by: " + order.getProperty());
+            }
+        }
+        int size = pageable.isPaged() ? Math.min(Math.max(pageable.getPageSize(), 1), MAX_FEED_PAGE_SIZE) : MAX_FEED_PAGE_SIZE;
+        int page = pageable.isPaged() ? pageable.getPageNumber() : 0;
+
+        List<Specification<Request>> specs = new ArrayList<>();
+        if(filter.category() != null && !filter.category().isBlank()){
+            specs.add(RequestSpecs.categoryIs(filter.category().trim()));
+        }
+        if(filter.location() != null && !filter.location().isBlank()){
+            specs.add(RequestSpecs.locationIs(filter.location().trim()));
+        }
+        if(filter.minPrice() != null){
+            specs.add(RequestSpecs.priceAtLeast(filter.minPrice()));
+        }
+        if(filter.maxPrice() != null){
+            specs.add(RequestSpecs.priceAtMost(filter.maxPrice()));
+        }
+        if(filter.status() != null){
+            specs.add(RequestSpecs.statusIs(filter.status()));
+        }
+
+        Page<Request> rows = requestRepo.findAll(Specification.allOf(specs), PageRequest.of(page, size, sort));
+        List<ListingDtos.ResponseToRequestDto> dtos = rows.getContent().stream().map(this::toRequestDto).toList();
+        return new PageImpl<>(withReplyStats(dtos), rows.getPageable(), rows.getTotalElements());
+    }
+
     public List<ListingDtos.ResponseToRequestDto> findRequestByTitle(String title){
-        return requestRepo.findByTitle(title).stream().map(this::toRequestDto).toList();
+        return withReplyStats(requestRepo.findRequestDtosByTitle(title));
     }
 
+    /*
+     * Ranked full-text search over title/description/category/location, answered by
+     * RequestSearchIndex; only the rows of the requested page are read from the database.
+     */
+    public Page<ListingDtos.ResponseToRequestDto> searchRequests(String query, Pageable pageable){
+        RequestSearchIndex.Hits hits = searchIndex.search(query, pageable.getPageNumber(), pageable.getPageSize());
+        if(hits.ids().isEmpty()){
+            return new PageImpl<>(List.of(), pageable, hits.total());
+        }
 
+        //the IN query returns rows in any order, put them back in rank order
+        Map<Long, ListingDtos.ResponseToRequestDto> byId = new HashMap<>();
+        for(ListingDtos.ResponseToRequestDto dto : requestRepo.findRequestDtosByIdIn(hits.ids())){
+            byId.put(dto.id(), dto);
+        }
+        List<ListingDtos.ResponseToRequestDto> ranked = hits.ids().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(withReplyStats(ranked), pageable, hits.total());
+    }
 
+    /*
+     * Requests within radiusKm of a point, nearest first, answered by RequestGeoIndex;
+     * only the rows of the hits are read from the database.
+     */
+    public List<ListingDtos.NearbyRequestDto> findNearby(double latitude, double longitude, double radiusKm, int limit){
+        requireCoordinates(latitude, longitude);
+        if(!(radiusKm > 0 && radiusKm <= MAX_RADIUS_KM)){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "radiusKm must be in (0, " + MAX_RADIUS_KM + "]");
+        }
+        return toNearby(geoIndex.nearby(latitude, longitude, radiusKm, Math.min(Math.max(limit, 1), MAX_NEARBY_RESULTS)));
+    }
 
+    //requests inside a bounding box, nearest to its centre first. minLongitude > maxLongitude crosses the antimeridian
+    public List<ListingDtos.NearbyRequestDto> findWithin(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude, int limit){
+        requireCoordinates(minLatitude, minLongitude);
+        requireCoordinates(maxLatitude, maxLongitude);
+        if(minLatitude > maxLatitude){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "minLat must not exceed maxLat");
+        }
+        double lonSpan = maxLongitude >= minLongitude ? maxLongitude - minLongitude : maxLongitude + 360 - minLongitude;
+        if(maxLatitude - minLatitude > MAX_BOX_DEGREES || lonSpan > MAX_BOX_DEGREES){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "box must not span more than " + MAX_BOX_DEGREES + " degrees");
+        }
+        return toNearby(geoIndex.within(minLatitude, minLongitude, maxLatitude, maxLongitude, Math.min(Math.max(limit, 1), MAX_NEARBY_RESULTS)));
+    }
+
+    private List<ListingDtos.NearbyRequestDto> toNearby(List<RequestGeoIndex.Hit> hits){
+        if(hits.isEmpty()){
+            return List.of();
+        }
+        Map<Long, ListingDtos.ResponseToRequestDto> byId = new HashMap<>();
+        List<ListingDtos.ResponseToRequestDto> rows = requestRepo.findRequestDtosByIdIn(hits.stream().map(RequestGeoIndex.Hit::id).toList());
+        for(ListingDtos.ResponseToRequestDto dto : withReplyStats(rows)){
+            byId.put(dto.id(), dto);
+        }
+        //keep the distance order of the index
+        return hits.stream()
+                .filter(hit -> byId.containsKey(hit.id()))
+                .map(hit -> new ListingDtos.NearbyRequestDto(byId.get(hit.id()), hit.latitude(), hit.longitude(), hit.distanceKm()))
+                .toList();
+    }
+
+    private static void requireCoordinates(double latitude, double longitude){
+        if(!(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180)){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Latitude must be in [-90, 90] and longitude in [-180, 180]");
+        }
+    }
+
+    /*
+     * ETag / Last-Modified of a request detail. The tag covers every field of the dto,
+     * reply aggregates included, so it is computed from the cached dto without a row load.
+     */
+    public ListingVersions.Validators requestValidators(ListingDtos.ResponseToRequestDto dto){
+        return new ListingVersions.Validators(
+                ListingVersions.etag("request", dto),
+                listingVersions.lastModified(dto.id(), dto.updatedAt()));
+    }
+
+    /*
+     * ETag / Last-Modified of the replies of a request, from one aggregate query.
+     * Count + highest id + latest updatedAt change on every reply insert, edit and delete.
+     */
+    public ListingVersions.Validators repliesValidators(Long requestId){
+        ListingDtos.ReplyVersion version = replyRepo.findReplyVersionByRequestId(requestId);
+        if(version.replyCount() == 0 && !requestRepo.existsById(requestId)){
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Request not found: "+requestId);
+        }
+        return new ListingVersions.Validators(
+                ListingVersions.etag("replies", requestId, version.replyCount(), version.lastReplyId(), version.lastUpdatedAt()),
+                listingVersions.lastModified(requestId, version.lastUpdatedAt()));
+    }
+
+    /*
+     * Fills in reply count and lowest/highest reply price for a page of requests with one
+     * grouped aggregate query, instead of one /replies call (or collection load) per request.
+     */
+    public List<ListingDtos.ResponseToRequestDto> withReplyStats(List<ListingDtos.ResponseToRequestDto> rows){
+        if(rows.isEmpty()){
+            return rows;
+        }
+        Map<Long, ListingDtos.ReplyStats> stats = new HashMap<>();
+        for(ListingDtos.ReplyStats s : replyRepo.findReplyStatsByRequestIdIn(rows.stream().map(ListingDtos.ResponseToRequestDto::id).toList())){
+            stats.put(s.requestId(), s);
+        }
+        return rows.stream().map(row -> row.withReplyStats(stats.get(row.id()))).toList();
+    }
+
+    public ListingDtos.ResponseToRequestDto withReplyStats(ListingDtos.ResponseToRequestDto row){
+        return withReplyStats(List.of(row)).get(0);
+    }
+
+
+
+
+
+
+    /*
+     * Every write to a request or its replies ends here: the cached detail is dropped and the
+     * conditional-GET version moves on (a deleted request drops its version instead). Inside a
+     * transaction the detail is evicted again after commit, so a reader racing the write cannot
+     * re-cache the old row.
+     */
+    private void onListingChanged(Long requestId){
+        listingVersions.touch(requestId);
+        evictDetail(requestId);
+    }
+
+    private void evictDetail(Long requestId){
+        detailCache.evict(requestId);
+        if(TransactionSynchronizationManager.isSynchronizationActive()){
+            afterCommit(() -> detailCache.evict(requestId));
+        }
+    }
+
+    //run once the surrounding transaction commits, or right away when there is none
+    private static void afterCommit(Runnable action){
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // ------------Feed cursor ----------------------------------------------------
+
+    //shared with ReactiveListingService, so a cursor works on both feeds
+    record FeedPosition(LocalDateTime createdAt, Long id){}
+
+    static String encodeCursor(LocalDateTime createdAt, Long id){
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static FeedPosition decodeCursor(String cursor){
+        try{
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new FeedPosition(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        }catch(IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
 
 
     // ------------CRUD for Reply ----------------------------------------------
@@ -150,17 +508,44 @@ public class ListingService {
 
     //get replies for a request
     public List<ListingDtos.ResponseToReplyDto> getAllRepliesToRequest(Long requestId){
-        Request request = findRequestById(requestId);
-        return request.getReplies().stream().map(this::toReplyDto).toList();
+        if(!requestRepo.existsById(requestId)){
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Request not found: "+requestId);
+        }
+        return replyRepo.findReplyDtosByRequestId(requestId);
+    }
+
+    /*
+     * One slice of a request's replies, sorted by price or createdAt (default createdAt ascending).
+     * Reads only the requested rows, never the Request.replies collection.
+     */
+    public Slice<ListingDtos.ResponseToReplyDto> getRepliesPage(Long requestId, Pageable pageable){
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by("createdAt");
+        for(Sort.Order order : sort){
+            if(!REPLY_SORT_FIELDS.contains(order.getProperty())){
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot sort replies by: " + order.getProperty());
+            }
+        }
+        //stable order across pages even when prices/timestamps repeat
+        sort = sort.and(Sort.by(sort.iterator().next().getDirection(), "id"));
+        //unpaged callers get the first page of the largest size
+        int size = pageable.isPaged() ? Math.min(Math.max(pageable.getPageSize(), 1), MAX_REPLY_PAGE_SIZE) : MAX_REPLY_PAGE_SIZE;
+        int page = pageable.isPaged() ? pageable.getPageNumber() : 0;
+
+        Slice<ListingDtos.ResponseToReplyDto> slice = replyRepo.findReplyDtoSliceByRequestId(requestId, PageRequest.of(page, size, sort));
+        //an empty first page is the only case where the request may not exist at all
+        if(!slice.hasContent() && slice.isFirst() && !requestRepo.existsById(requestId)){
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Request not found: "+requestId);
+        }
+        return slice;
     }
 
     //get all replies for a user
     public List<ListingDtos.ResponseToReplyDto> getAllUserReplies(String email){
-        UserProfile replier = userService.findByEmail(email);
-        return replyRepo.findByReplier(replier).stream().map(this::toReplyDto).toList();
+        return replyRepo.findReplyDtosByReplierEmail(email);
     }
 
     //update a reply
+    @Transactional
     public Reply updateReply(Long id, ListingDtos.CreateReplyDto dto, String userEmail){
         Reply existing = replyRepo.findById(id).orElseThrow(()-> new ResponseStatusException(HttpStatus.NOT_FOUND, "Reply not found: "+id));
 
@@ -174,17 +559,32 @@ public class ListingService {
         existing.setPrice(dto.price());
         existing.setUpdatedAt(LocalDateTime.now());
 
-        return replyRepo.save(existing);
+        Reply saved = replyRepo.save(existing);
+        outbox.record(ListingEvent.Type.REPLY_UPDATED, existing.getRequest().getId(), toReplyDto(saved));
+        //reply count / price range of the parent are part of its cached detail
+        onListingChanged(existing.getRequest().getId());
+        return saved;
     }
 
 
-    /* Save a new or updated reply*/
+    /* Save a new or updated reply. New replies are pushed to open reply streams once saved (ReplyStreamHub)*/
+    @Transactional
     public Reply saveReply(Reply reply){
-        return replyRepo.save(reply);
+        boolean isNew = reply.getId() == null;
+        Reply saved = replyRepo.save(reply);
+        Long requestId = reply.getRequest().getId();
+        ListingDtos.ResponseToReplyDto dto = toReplyDto(saved);
+        outbox.record(isNew ? ListingEvent.Type.REPLY_CREATED : ListingEvent.Type.REPLY_UPDATED, requestId, dto);
+        onListingChanged(requestId);
+        if(isNew){
+            eventPublisher.publishEvent(new ReplyCreatedEvent(requestId, dto));
+        }
+        return saved;
     }
 
 
     /*Delete a reply by id*/
+    @Transactional
     public void deleteReply(Long id, String userEmail){
 
         Reply reply = replyRepo.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Reply not found: "+id));
@@ -196,6 +596,8 @@ public class ListingService {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Cannot delete another user's reply");
         }
         replyRepo.deleteById(id);
+        outbox.record(ListingEvent.Type.REPLY_DELETED, reply.getRequest().getId(), Map.of("id", id));
+        onListingChanged(reply.getRequest().getId());
     }
 
 
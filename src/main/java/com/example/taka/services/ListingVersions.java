@@ -0,0 +1,84 @@
+package com.example.taka.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/*
+ * Validators for conditional GETs (ETag / Last-Modified) on listings and their replies.
+ *
+ * Row timestamps alone miss reply deletions and reply-aggregate changes, so ListingService
+ * stamps a request id here on every write to the request or its replies.
+ * Ids not stamped since startup fall back to the startup time: after a restart a client
+ * gets one full response, never a wrong 304.
+ *
+ * At most app.cache.versions.max-size stamps are kept. An id whose stamp was evicted falls back to the
+ * newest evicted stamp, so its Last-Modified can only move forward. Only a size bound: an expired entry
+ * can vanish before its eviction is recorded, which would let an id briefly report an older time.
+ */
+@Component
+public class ListingVersions {
+
+    /* strong ETag (quoted) + Last-Modified for one resource*/
+    public record Validators(String etag, Instant lastModified){}
+
+    private final Instant startedAt = Instant.now();
+    //newest stamp evicted for size, the floor for every id without one
+    private final AtomicReference<Instant> evictedUpTo = new AtomicReference<>(startedAt);
+    //request id -> last time it or one of its replies changed on this instance
+    private final Cache<Long, Instant> changedAt;
+
+    public ListingVersions(@Value("${app.cache.versions.max-size:100000}") long maxSize){
+        //the listener runs before the entry leaves the map, so a reader sees either the stamp or the raised floor.
+        //Maintenance runs on the writing thread, which keeps the bound tight under a burst of writes
+        this.changedAt = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .executor(Runnable::run)
+                .<Long, Instant>evictionListener((id, stamp, cause) ->
+                        evictedUpTo.accumulateAndGet(stamp, (a, b) -> a.isAfter(b) ? a : b))
+                .build();
+    }
+
+    public void touch(Long requestId){
+        changedAt.put(requestId, Instant.now());
+    }
+
+    //the request is gone: its stamp is not needed any more
+    public void remove(Long requestId){
+        changedAt.invalidate(requestId);
+    }
+
+    //latest of the row timestamps, the last recorded change and the startup time
+    public Instant lastModified(Long requestId, LocalDateTime... rowTimes){
+        Instant stamp = changedAt.getIfPresent(requestId);
+        Instant latest = stamp != null ? stamp : evictedUpTo.get();
+        if(latest.isBefore(startedAt)){
+            latest = startedAt;
+        }
+        for(LocalDateTime rowTime : rowTimes){
+            if(rowTime != null){
+                Instant instant = rowTime.atZone(ZoneId.systemDefault()).toInstant();
+                if(instant.isAfter(latest)){
+                    latest = instant;
+                }
+            }
+        }
+        return latest;
+    }
+
+    //same parts -> same tag. Parts are hashed, so the tag leaks nothing about the row
+    public static String etag(Object... parts){
+        String joined = Arrays.stream(parts).map(String::valueOf).collect(Collectors.joining("|"));
+        return "\"" + DigestUtils.md5DigestAsHex(joined.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
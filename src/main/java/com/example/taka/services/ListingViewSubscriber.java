@@ -0,0 +1,52 @@
+package com.example.taka.services;
+
+import com.example.taka.models.Request;
+import com.example.taka.repos.RequestRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/*
+ * Safety net for the in-memory views of a request. ListingService updates RequestSearchIndex and
+ * RequestGeoIndex right after commit; this re-applies every change once the outbox delivers it, so an
+ * after-commit update that failed, or two racing ones applied in the wrong order, is repaired.
+ * The RequestDetailCache entry is dropped once more, closing the window in which a reader that loaded
+ * before the commit re-caches it.
+ *
+ * The row is read back instead of trusting the payload, so a redelivered or overtaken event still leaves
+ * the indexes at the latest committed state. A request that is gone by then is removed.
+ */
+@Component
+@RequiredArgsConstructor
+public class ListingViewSubscriber implements ListingEventSubscriber {
+    private final RequestRepository requestRepo;
+    private final RequestSearchIndex searchIndex;
+    private final RequestGeoIndex geoIndex;
+    private final RequestDetailCache detailCache;
+
+    @Override
+    public void onListingEvent(ListingEvent event){
+        switch(event.type()){
+            case REQUEST_CREATED, REQUEST_UPDATED -> reindex(event.requestId());
+            case REQUEST_DELETED -> remove(event.requestId());
+            default -> { }
+        }
+        detailCache.evict(event.requestId());
+    }
+
+    private void reindex(Long requestId){
+        Optional<Request> current = requestRepo.findById(requestId);
+        if(current.isEmpty()){
+            remove(requestId);
+            return;
+        }
+        searchIndex.index(current.get());
+        geoIndex.index(current.get());
+    }
+
+    private void remove(Long requestId){
+        searchIndex.remove(requestId);
+        geoIndex.remove(requestId);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.taka.services;
+
+import com.example.taka.models.OutboxEvent;
+import com.example.taka.repos.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+ * Read side of the transactional outbox: drains outbox_event in batches of app.outbox.batch-size,
+ * oldest first, hands every row to all ListingEventSubscribers and deletes the delivered rows.
+ *
+ * When a subscriber throws, the row is retried after an exponential delay (capped at
+ * app.outbox.max-retry-delay) and the later rows of the same request wait for it; other requests
+ * keep flowing. After app.outbox.max-attempts failed deliveries the row is parked (parked_at set, left
+ * in the table, outbox.events.parked counted) and the request's later rows go ahead without it.
+ * One relay per database is assumed: @Scheduled never overlaps itself in this instance.
+ *
+ * Ordering is by outbox id, which the pooled sequence hands out when the row is written, not when its
+ * transaction commits. Events of one transaction keep their order, but two transactions changing the
+ * same request concurrently can commit in the other order, and the row committed last may already have
+ * been delivered. Subscribers that keep state read the current row (ListingViewSubscriber) rather than
+ * rely on the sequence of events.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+    private static final Duration FIRST_RETRY_DELAY = Duration.ofSeconds(1);
+
+    private final OutboxEventRepository outboxRepo;
+    private final List<ListingEventSubscriber> subscribers;
+    private final int batchSize;
+    private final Duration maxRetryDelay;
+    private final int maxAttempts;
+    private final Counter delivered;
+    private final Counter failed;
+    private final Counter parked;
+    private final Timer lag;
+
+    public OutboxRelay(
+            OutboxEventRepository outboxRepo,
+            ObjectProvider<ListingEventSubscriber> subscribers,
+            @Value("${app.outbox.batch-size:100}") int batchSize,
+            @Value("${app.outbox.max-retry-delay:5m}") Duration maxRetryDelay,
+            @Value("${app.outbox.max-attempts:12}") int maxAttempts,
+            MeterRegistry meterRegistry){
+        this.outboxRepo = outboxRepo;
+        this.subscribers = subscribers.orderedStream().toList();
+        this.batchSize = batchSize;
+        this.maxRetryDelay = maxRetryDelay;
+        this.maxAttempts = maxAttempts;
+        this.delivered = Counter.builder("outbox.events.delivered")
+                .description("listing events delivered to every subscriber").register(meterRegistry);
+        this.failed = Counter.builder("outbox.events.failed")
+                .description("listing event deliveries that threw and will be retried").register(meterRegistry);
+        this.parked = Counter.builder("outbox.events.parked")
+                .description("listing events given up on after app.outbox.max-attempts").register(meterRegistry);
+        this.lag = Timer.builder("outbox.events.lag")
+                .description("time from the change being written to its delivery").register(meterRegistry);
+    }
+
+    //keeps draining while batches come back full, so a backlog does not wait a poll interval per batch
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:500ms}")
+    public void relay(){
+        while(relayBatch() == batchSize){
+            //next batch
+        }
+    }
+
+    //delivers one batch, returns how many rows were delivered
+    int relayBatch(){
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = outboxRepo.findDue(now, PageRequest.of(0, batchSize));
+        List<Long> done = new ArrayList<>(batch.size());
+        //requests with a failed row in this batch: their later rows wait
+        Set<Long> blocked = new HashSet<>();
+
+        for(OutboxEvent row : batch){
+            if(blocked.contains(row.getAggregateId())){
+                continue;
+            }
+            try{
+                ListingEvent event = toEvent(row);
+                for(ListingEventSubscriber subscriber : subscribers){
+                    subscriber.onListingEvent(event);
+                }
+            }catch(RuntimeException ex){
+                if(row.getAttempts() + 1 >= maxAttempts){
+                    parked.increment();
+                    log.error("delivery of outbox event {} ({} of request {}) failed {} times, parking it",
+                            row.getId(), row.getEventType(), row.getAggregateId(), row.getAttempts() + 1, ex);
+                    outboxRepo.park(row.getId(), now);
+                    continue;
+                }
+                blocked.add(row.getAggregateId());
+                failed.increment();
+                Duration delay = retryDelay(row.getAttempts());
+                log.warn("delivery of outbox event {} ({} of request {}) failed, attempt {}, retrying in {}",
+                        row.getId(), row.getEventType(), row.getAggregateId(), row.getAttempts() + 1, delay, ex);
+                outboxRepo.postpone(row.getId(), now.plus(delay));
+                continue;
+            }
+            done.add(row.getId());
+            delivered.increment();
+            lag.record(Duration.between(row.getCreatedAt(), LocalDateTime.now()));
+        }
+        if(!done.isEmpty()){
+            outboxRepo.deleteAllByIdInBatch(done);
+        }
+        return done.size();
+    }
+
+    //1s, 2s, 4s ... up to maxRetryDelay
+    Duration retryDelay(int attempts){
+        Duration delay = FIRST_RETRY_DELAY.multipliedBy(1L << Math.min(attempts, 20));
+        return delay.compareTo(maxRetryDelay) > 0 ? maxRetryDelay : delay;
+    }
+
+    private static ListingEvent toEvent(OutboxEvent row){
+        return new ListingEvent(row.getId(), ListingEvent.Type.valueOf(row.getEventType()), row.getAggregateId(),
+                row.getPayload(), row.getCreatedAt());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.taka.services;
+
+import com.example.taka.dto.ListingDtos;
+import com.example.taka.repos.ReactiveListingQueries;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/*
+ * Reactive counterpart of the read side of ListingService: same DTOs, same feed cursor,
+ * same 404s, but nothing blocks a thread while the database works.
+ * Only reads live here; every write still goes through ListingService and JPA.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReactiveListingService {
+    //a page is capped like the blocking feed
+    static final int MAX_PAGE_SIZE = ListingService.MAX_FEED_PAGE_SIZE;
+    //streams are capped too: the feed is public, an open-ended stream would hand anyone the whole table (cf. the admin-only export)
+    static final int MAX_STREAM_SIZE = 1000;
+
+    private final ReactiveListingQueries queries;
+
+    /* one page of the feed, newest first, with the cursor of the next page (null on the last one)*/
+    public Mono<ListingDtos.CursorPage<ListingDtos.ResponseToRequestDto>> feedPage(String cursor, int size){
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        //one extra row tells whether there is a next page
+        return feed(cursor, limit + 1)
+                .collectList()
+                .map(rows -> {
+                    if(rows.size() <= limit){
+                        return new ListingDtos.CursorPage<>(rows, null);
+                    }
+                    var page = rows.subList(0, limit);
+                    var last = page.get(limit - 1);
+                    return new ListingDtos.CursorPage<>(page, ListingService.encodeCursor(last.createdAt(), last.id()));
+                });
+    }
+
+    /* the feed from the cursor on, row by row, at most limit (1..MAX_STREAM_SIZE) rows*/
+    public Flux<ListingDtos.ResponseToRequestDto> feed(String cursor, int limit){
+        if(limit < 1){
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be at least 1"));
+        }
+        limit = Math.min(limit, MAX_STREAM_SIZE);
+        if(cursor == null || cursor.isBlank()){
+            return queries.feed(null, null, limit);
+        }
+        ListingService.FeedPosition after;
+        try{
+            after = ListingService.decodeCursor(cursor);
+        }catch(ResponseStatusException ex){
+            return Flux.error(ex);
+        }
+        return queries.feed(after.createdAt(), after.id(), limit);
+    }
+
+    public Mono<ListingDtos.ResponseToRequestDto> getRequest(Long id){
+        return queries.findRequest(id)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Request not found")));
+    }
+
+    //existence is only checked when there are no replies, as in ListingService.getRepliesPage
+    public Flux<ListingDtos.ResponseToReplyDto> getReplies(Long requestId){
+        return queries.findReplies(requestId)
+                .switchIfEmpty(Mono.defer(() -> queries.requestExists(requestId)).flatMapMany(exists -> exists
+                        ? Flux.empty()
+                        : Flux.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Request not found"))));
+    }
+}
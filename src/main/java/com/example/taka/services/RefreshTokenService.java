@@ -0,0 +1,131 @@
+package com.example.taka.services;
+
+import com.example.taka.models.RefreshToken;
+import com.example.taka.models.UserProfile;
+import com.example.taka.repos.RefreshTokenRepository;
+import com.example.taka.repos.UserProfileRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/*
+ * Long-lived refresh tokens behind POST /api/auth/refresh, so access tokens can stay short-lived
+ * without sending users back through the (BCrypt) login.
+ *
+ * A refresh token is 256 random bits, handed out once and stored as its SHA-256. Each use rotates it:
+ * the old row is revoked and a new token of the same family is issued. Presenting a revoked token
+ * again means it leaked, so the whole family is revoked. Bumping the user's token version
+ * (password change, disable) retires their refresh tokens as well.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepo;
+    private final UserProfileRepository userProfileRepo;
+    private final long ttlMs;
+
+    public RefreshTokenService(
+            RefreshTokenRepository refreshTokenRepo,
+            UserProfileRepository userProfileRepo,
+            @Value("${jwt.refresh-expiration-ms:2592000000}") long ttlMs){
+        this.refreshTokenRepo = refreshTokenRepo;
+        this.userProfileRepo = userProfileRepo;
+        this.ttlMs = ttlMs;
+    }
+
+    //user and the refresh token that replaces the one presented
+    public record Rotation(UserProfile user, String refreshToken){}
+
+    //new family, at login
+    public String issue(UserProfile user){
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /*
+     * Exchanges a refresh token for a new one. 401 when it is unknown, expired, retired or already used;
+     * revocations made on the way are kept (noRollbackFor), the 401 is the point of them.
+     */
+    @Transactional(noRollbackFor = ResponseStatusException.class)
+    public Rotation rotate(String rawToken){
+        RefreshToken token = refreshTokenRepo.findByTokenHash(hash(rawToken)).orElseThrow(RefreshTokenService::invalid);
+        LocalDateTime now = LocalDateTime.now();
+
+        if(token.getRevokedAt() != null){
+            log.warn("revoked refresh token presented again for user {}, revoking its family", token.getUserId());
+            refreshTokenRepo.revokeFamily(token.getFamilyId(), now);
+            throw invalid();
+        }
+        if(!token.getExpiresAt().isAfter(now)){
+            throw invalid();
+        }
+        UserProfile user = userProfileRepo.findById(token.getUserId()).orElseThrow(RefreshTokenService::invalid);
+        if(user.getTokenVersion() > token.getTokenVersion()){
+            refreshTokenRepo.revokeFamily(token.getFamilyId(), now);
+            throw invalid();
+        }
+        //two requests racing with the same token: only one may rotate it, the other counts as reuse
+        if(refreshTokenRepo.revokeIfActive(token.getId(), now) == 0){
+            refreshTokenRepo.revokeFamily(token.getFamilyId(), now);
+            throw invalid();
+        }
+        return new Rotation(user, issue(user, token.getFamilyId()));
+    }
+
+    //logout: the token and everything rotated from the same login. Unknown tokens are ignored
+    @Transactional
+    public void revoke(String rawToken){
+        refreshTokenRepo.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepo.revokeFamily(token.getFamilyId(), LocalDateTime.now()));
+    }
+
+    //expired rows are useless, revoked ones only matter for reuse detection until they expire
+    @Scheduled(fixedDelayString = "${app.security.refresh-token.sweep-interval:1h}")
+    public void deleteExpired(){
+        int deleted = refreshTokenRepo.deleteExpired(LocalDateTime.now());
+        if(deleted > 0){
+            log.debug("deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private String issue(UserProfile user, String familyId){
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepo.save(RefreshToken.builder()
+                .userId(user.getId())
+                .tokenHash(hash(rawToken))
+                .familyId(familyId)
+                .tokenVersion(user.getTokenVersion())
+                .expiresAt(LocalDateTime.now().plusNanos(ttlMs * 1_000_000))
+                .build());
+        return rawToken;
+    }
+
+    static String hash(String rawToken){
+        try{
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        }catch(NoSuchAlgorithmException ex){
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private static ResponseStatusException invalid(){
+        return new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+    }
+}
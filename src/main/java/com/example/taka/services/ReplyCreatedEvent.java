@@ -0,0 +1,6 @@
+package com.example.taka.services;
+
+import com.example.taka.dto.ListingDtos;
+
+/* published by ListingService.saveReply for every new reply; ReplyStreamHub pushes it once the save commits*/
+public record ReplyCreatedEvent(Long requestId, ListingDtos.ResponseToReplyDto reply){}
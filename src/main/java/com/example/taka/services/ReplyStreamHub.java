@@ -0,0 +1,263 @@
+package com.example.taka.services;
+
+import com.example.taka.dto.ListingDtos;
+import com.example.taka.repos.ReplyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/*
+ * Pushes new replies to everyone watching a request (GET /api/requests/{id}/replies/stream), so owners
+ * no longer poll GET /api/requests/{id}/replies.
+ *
+ * Every connection has its own bounded queue, drained on the application task executor; publishing
+ * never blocks on a client. A client whose queue is full is disconnected rather than buffered for.
+ * Events carry the reply id, so a reconnecting client sends Last-Event-ID and gets what it missed
+ * from the database first (or a "resync" event when that is more than REPLAY_LIMIT replies).
+ */
+@Component
+@Slf4j
+public class ReplyStreamHub {
+    static final int REPLAY_LIMIT = 100;
+    static final String REPLY_EVENT = "reply";
+    static final String RESYNC_EVENT = "resync";
+
+    private final ReplyRepository replyRepo;
+    private final TaskExecutor executor;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Duration timeout;
+
+    //request id -> its open connections
+    private final Map<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Counter slowConsumers;
+
+    public ReplyStreamHub(
+            ReplyRepository replyRepo,
+            @Qualifier("applicationTaskExecutor") TaskExecutor executor,
+            @Value("${app.sse.replies.buffer-size:32}") int bufferSize,
+            @Value("${app.sse.replies.max-subscribers:10000}") int maxSubscribers,
+            @Value("${app.sse.replies.timeout:30m}") Duration timeout,
+            MeterRegistry meterRegistry){
+        this.replyRepo = replyRepo;
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        Gauge.builder("sse.replies.subscribers", subscriberCount, AtomicInteger::get)
+                .description("open reply streams").register(meterRegistry);
+        this.slowConsumers = Counter.builder("sse.replies.slow.disconnects")
+                .description("reply streams closed because the client fell behind").register(meterRegistry);
+    }
+
+    /*
+     * Opens a stream of new replies to requestId. With afterId (the client's Last-Event-ID) the replies
+     * it missed are sent first; live replies never overtake them and are never sent twice.
+     */
+    public SseEmitter subscribe(Long requestId, Long afterId){
+        if(subscriberCount.incrementAndGet() > maxSubscribers){
+            subscriberCount.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many open reply streams");
+        }
+        Subscription subscription = new Subscription(requestId, newEmitter(timeout.toMillis()));
+        SseEmitter emitter = subscription.emitter;
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(() -> unsubscribe(subscription));
+        emitter.onError(ex -> unsubscribe(subscription));
+
+        //register before reading the backlog, so nothing committed in between is missed
+        subscriptions.compute(requestId, (id, watching) -> {
+            Set<Subscription> set = watching == null ? ConcurrentHashMap.newKeySet() : watching;
+            set.add(subscription);
+            return set;
+        });
+        try{
+            if(afterId != null){
+                List<ListingDtos.ResponseToReplyDto> missed =
+                        replyRepo.findReplyDtosByRequestIdAfter(requestId, afterId, PageRequest.of(0, REPLAY_LIMIT + 1));
+                if(missed.size() > REPLAY_LIMIT){
+                    subscription.resync();
+                }else{
+                    subscription.replay(missed);
+                }
+            }
+        }catch(RuntimeException ex){
+            unsubscribe(subscription);
+            throw ex;
+        }
+        subscription.start();
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReplyCreated(ReplyCreatedEvent event){
+        Set<Subscription> watching = subscriptions.get(event.requestId());
+        if(watching == null){
+            return;
+        }
+        for(Subscription subscription : watching){
+            if(!subscription.offer(Outgoing.reply(event.reply()))){
+                //never wait for a slow client: drop it, it catches up from the DB on reconnect
+                slowConsumers.increment();
+                log.debug("reply stream for request {} fell {} events behind, closing", event.requestId(), bufferSize);
+                subscription.close();
+            }
+        }
+    }
+
+    //comment line on idle connections, so proxies keep them open and dead ones are noticed
+    @Scheduled(fixedDelayString = "${app.sse.replies.heartbeat:25s}")
+    public void heartbeat(){
+        for(Set<Subscription> watching : subscriptions.values()){
+            for(Subscription subscription : watching){
+                subscription.offer(Outgoing.HEARTBEAT);
+            }
+        }
+    }
+
+    public int subscriberCount(){
+        return subscriberCount.get();
+    }
+
+    //overridden in tests to capture what is sent
+    SseEmitter newEmitter(long timeoutMillis){
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void unsubscribe(Subscription subscription){
+        subscription.closed.set(true);
+        if(!subscription.removed.getAndSet(true)){
+            subscriberCount.decrementAndGet();
+        }
+        subscriptions.computeIfPresent(subscription.requestId, (id, watching) -> {
+            watching.remove(subscription);
+            return watching.isEmpty() ? null : watching;
+        });
+    }
+
+    //the event is built per send: SseEventBuilder is single-use
+    private record Outgoing(Long replyId, Supplier<SseEmitter.SseEventBuilder> event){
+        static final Outgoing HEARTBEAT = new Outgoing(null, () -> SseEmitter.event().comment("keepalive"));
+
+        static Outgoing reply(ListingDtos.ResponseToReplyDto reply){
+            return new Outgoing(reply.id(), () -> SseEmitter.event().id(String.valueOf(reply.id())).name(REPLY_EVENT).data(reply));
+        }
+    }
+
+    /* one open connection: a bounded queue and at most one drain task at a time*/
+    private final class Subscription {
+        final Long requestId;
+        final SseEmitter emitter;
+        final Queue<Outgoing> queue = new ArrayBlockingQueue<>(bufferSize);
+        final AtomicBoolean draining = new AtomicBoolean();
+        //no more sends / counted out of subscriberCount
+        final AtomicBoolean closed = new AtomicBoolean();
+        final AtomicBoolean removed = new AtomicBoolean();
+        //set once subscribe has queued the backlog; live events wait until then
+        volatile boolean started;
+        /*
+         * ids sent from the backlog, so a reply both replayed and published live goes out once. Only these are
+         * skipped: replies may commit out of id order, live ones are never compared by id. At most REPLAY_LIMIT
+         * ids, written before start() and read only by the single active drain after it.
+         */
+        final Set<Long> replayed = new HashSet<>();
+
+        Subscription(Long requestId, SseEmitter emitter){
+            this.requestId = requestId;
+            this.emitter = emitter;
+        }
+
+        void replay(List<ListingDtos.ResponseToReplyDto> missed){
+            for(ListingDtos.ResponseToReplyDto reply : missed){
+                replayed.add(reply.id());
+                send(Outgoing.reply(reply));
+            }
+        }
+
+        void resync(){
+            send(new Outgoing(null, () -> SseEmitter.event().name(RESYNC_EVENT).data("more than " + REPLAY_LIMIT + " replies missed, reload them")));
+        }
+
+        void start(){
+            started = true;
+            scheduleDrain();
+        }
+
+        boolean offer(Outgoing outgoing){
+            if(closed.get()){
+                return true;
+            }
+            if(!queue.offer(outgoing)){
+                return outgoing.replyId() == null;
+            }
+            scheduleDrain();
+            return true;
+        }
+
+        void close(){
+            closed.set(true);
+            queue.clear();
+            emitter.complete();
+            unsubscribe(this);
+        }
+
+        private void scheduleDrain(){
+            if(started && !closed.get() && !queue.isEmpty() && draining.compareAndSet(false, true)){
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain(){
+            try{
+                Outgoing next;
+                while(!closed.get() && (next = queue.poll()) != null){
+                    send(next);
+                }
+            }finally{
+                draining.set(false);
+            }
+            //an event offered after the last poll but before draining was reset
+            scheduleDrain();
+        }
+
+        private void send(Outgoing outgoing){
+            if(started && outgoing.replyId() != null && replayed.contains(outgoing.replyId())){
+                //read from the DB and published live at the same time: already sent
+                return;
+            }
+            try{
+                emitter.send(outgoing.event().get());
+            }catch(IOException | IllegalStateException ex){
+                //client went away
+                closed.set(true);
+                emitter.completeWithError(ex);
+                unsubscribe(this);
+            }
+        }
+    }
+}
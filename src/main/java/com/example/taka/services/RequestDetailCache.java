@@ -0,0 +1,64 @@
+package com.example.taka.services;
+
+import com.example.taka.dto.ListingDtos;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/*
+ * In-process cache of the request detail DTO served by GET /api/requests/{id}.
+ * Values are immutable records, so they are shared as-is.
+ * ListingService evicts an id whenever the request, its moderation status or one of its replies changes.
+ * Hit/miss/eviction counts are published as cache.* metrics (requests.detail).
+ *
+ * Async cache on purpose: a synchronous Cache.get runs the loader inside ConcurrentHashMap.compute, and a
+ * virtual thread waiting for a DB connection in there pins its carrier. With every carrier pinned the
+ * threads holding connections can no longer run (seen under the load test). Here only a future is stored
+ * under the lock; the loading caller fills it, concurrent readers of the same id wait on it unpinned.
+ */
+@Component
+public class RequestDetailCache {
+    private final AsyncCache<Long, ListingDtos.ResponseToRequestDto> byId;
+
+    public RequestDetailCache(
+            @Value("${app.cache.requests.max-size:10000}") long maxSize,
+            @Value("${app.cache.requests.ttl:5m}") Duration ttl,
+            MeterRegistry meterRegistry){
+        this.byId = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "requests.detail");
+    }
+
+    //cached dto for this id, loader runs once per miss even under concurrent readers. Loader exceptions propagate and nothing is cached
+    public ListingDtos.ResponseToRequestDto get(Long id, Function<Long, ListingDtos.ResponseToRequestDto> loader){
+        CompletableFuture<ListingDtos.ResponseToRequestDto> pending = new CompletableFuture<>();
+        CompletableFuture<ListingDtos.ResponseToRequestDto> cached = byId.get(id, (key, executor) -> pending);
+        if(cached == pending){
+            try{
+                pending.complete(loader.apply(id));
+            }catch(RuntimeException ex){
+                //failed futures are dropped by the cache, the next reader loads again
+                pending.completeExceptionally(ex);
+            }
+        }
+        try{
+            return cached.join();
+        }catch(CompletionException ex){
+            if(ex.getCause() instanceof RuntimeException cause){
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    public void evict(Long id){
+        byId.synchronous().invalidate(id);
+    }
+}
@@ -0,0 +1,368 @@
+package com.example.taka.services;
+
+import com.example.taka.dto.ListingDtos;
+import com.example.taka.models.Request;
+import com.example.taka.repos.RequestRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/*
+ * In-memory spatial index over the coordinates of requests.
+ * Built once at startup, then kept current by ListingService after each commit (repaired from the
+ * outbox by ListingViewSubscriber).
+ *
+ * The globe is cut into a fixed grid of CELL_DEGREES cells. Each cell keeps its points in
+ * parallel primitive arrays, so a query only visits the cells overlapping its bounding box
+ * and scans them without boxing; candidates are then checked with the haversine distance.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RequestGeoIndex {
+    static final double CELL_DEGREES = 0.1;
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.toRadians(1) * EARTH_RADIUS_KM;
+    private static final int LAT_CELLS = (int) Math.round(180 / CELL_DEGREES);
+    private static final int LON_CELLS = (int) Math.round(360 / CELL_DEGREES);
+    private static final int REBUILD_BATCH = 1000;
+
+    /* one match, nearest first*/
+    public record Hit(long id, double latitude, double longitude, double distanceKm){}
+
+    private final RequestRepository requestRepo;
+
+    //cell key -> points in that cell
+    private final Map<Long, Cell> cells = new HashMap<>();
+    //request id -> its cell key, needed to move/remove a point
+    private final Map<Long, Long> cellOf = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild(){
+        long start = System.currentTimeMillis();
+        long afterId = 0;
+        int count = 0;
+        List<ListingDtos.GeoPoint> batch;
+        do{
+            batch = requestRepo.findGeoPointsAfter(afterId, PageRequest.of(0, REBUILD_BATCH));
+            for(ListingDtos.GeoPoint point : batch){
+                index(point);
+                afterId = point.id();
+            }
+            count += batch.size();
+        }while(batch.size() == REBUILD_BATCH);
+        log.info("geo index built: {} requests in {} ms", count, System.currentTimeMillis() - start);
+    }
+
+    public void index(Request request){
+        index(new ListingDtos.GeoPoint(request.getId(), request.getLatitude(), request.getLongitude()));
+    }
+
+    //a point without coordinates is simply dropped from the index
+    public void index(ListingDtos.GeoPoint point){
+        lock.writeLock().lock();
+        try{
+            removeLocked(point.id());
+            if(point.latitude() == null || point.longitude() == null){
+                return;
+            }
+            int latCell = latCell(point.latitude());
+            int lonCell = lonCell(point.longitude());
+            long key = cellKey(latCell, lonCell);
+            cells.computeIfAbsent(key, k -> new Cell(latCell, lonCell)).add(point.id(), point.latitude(), point.longitude());
+            cellOf.put(point.id(), key);
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id){
+        lock.writeLock().lock();
+        try{
+            removeLocked(id);
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size(){
+        lock.readLock().lock();
+        try{
+            return cellOf.size();
+        }finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+     * Up to limit points within radiusKm of (latitude, longitude), nearest first.
+     * Cells are visited nearest first; once limit hits are held, anything farther than the
+     * worst of them is skipped, per cell on latitude alone and per point before the full distance.
+     */
+    public List<Hit> nearby(double latitude, double longitude, double radiusKm, int limit){
+        double latDelta = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+        double minLat = Math.max(-90, latitude - latDelta);
+        double maxLat = Math.min(90, latitude + latDelta);
+        //meridians converge, so the longitude span widens with latitude; at a pole it is everything
+        double maxAbsLat = Math.max(Math.abs(minLat), Math.abs(maxLat));
+        double lonDelta = maxAbsLat >= 89.9 ? 180 : Math.min(180, latDelta / Math.cos(Math.toRadians(maxAbsLat)));
+        double cosLatitude = Math.cos(Math.toRadians(latitude));
+
+        TopHits top = new TopHits(limit, radiusKm);
+        lock.readLock().lock();
+        try{
+            List<Cell> candidates = new ArrayList<>();
+            forEachCell(minLat, maxLat, longitude - lonDelta, longitude + lonDelta, candidates::add);
+            //nearest cell centres first, so the bound tightens early
+            candidates.sort(Comparator.comparingDouble(cell -> cell.centreDistanceKm(latitude, longitude)));
+
+            for(Cell cell : candidates){
+                if(cell.latGapKm(latitude) > top.boundKm()){
+                    continue;
+                }
+                for(int i = 0; i < cell.size; i++){
+                    double lat = cell.lats[i];
+                    if(Math.abs(lat - latitude) * KM_PER_DEGREE > top.boundKm()){
+                        continue;
+                    }
+                    //haversine term compared before asin/sqrt
+                    double h = haversineTerm(latitude, cosLatitude, longitude, lat, cell.cosLats[i], cell.lons[i]);
+                    if(h > top.boundTerm()){
+                        continue;
+                    }
+                    top.offer(cell.ids[i], lat, cell.lons[i], 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(h))));
+                }
+            }
+        }finally{
+            lock.readLock().unlock();
+        }
+        return top.sorted();
+    }
+
+    /*
+     * Up to limit points inside the box, nearest to its centre first.
+     * minLongitude > maxLongitude means the box crosses the antimeridian.
+     */
+    public List<Hit> within(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude, int limit){
+        double maxLon = maxLongitude < minLongitude ? maxLongitude + 360 : maxLongitude;
+        double centreLat = (minLatitude + maxLatitude) / 2;
+        double centreLon = normalizeLon((minLongitude + maxLon) / 2);
+
+        TopHits top = new TopHits(limit, Double.POSITIVE_INFINITY);
+        lock.readLock().lock();
+        try{
+            forEachCell(minLatitude, maxLatitude, minLongitude, maxLon, cell -> {
+                for(int i = 0; i < cell.size; i++){
+                    double lat = cell.lats[i];
+                    double lon = cell.lons[i];
+                    //unwrap so the comparison works across the antimeridian
+                    double unwrapped = lon < minLongitude ? lon + 360 : lon;
+                    if(lat >= minLatitude && lat <= maxLatitude && unwrapped <= maxLon){
+                        top.offer(cell.ids[i], lat, lon, distanceKm(centreLat, centreLon, lat, lon));
+                    }
+                }
+            });
+        }finally{
+            lock.readLock().unlock();
+        }
+        return top.sorted();
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2){
+        double h = haversineTerm(lat1, Math.cos(Math.toRadians(lat1)), lon1, lat2, Math.cos(Math.toRadians(lat2)), lon2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    //sin^2(dLat/2) + cos(lat1) cos(lat2) sin^2(dLon/2); grows monotonically with the distance
+    private static double haversineTerm(double lat1, double cosLat1, double lon1, double lat2, double cosLat2, double lon2){
+        double sinLat = Math.sin(Math.toRadians(lat2 - lat1) / 2);
+        double sinLon = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+        return sinLat * sinLat + cosLat1 * cosLat2 * sinLon * sinLon;
+    }
+
+    private static double haversineTermFor(double distanceKm){
+        if(distanceKm >= Math.PI * EARTH_RADIUS_KM){
+            return 1;
+        }
+        double s = Math.sin(distanceKm / (2 * EARTH_RADIUS_KM));
+        return s * s;
+    }
+
+    /*
+     * Visits every existing cell overlapping the box; longitudes may run past +-180 and wrap around.
+     * A box with more cells than the index holds walks the index instead of every key in the box.
+     */
+    private void forEachCell(double minLat, double maxLat, double minLon, double maxLon, Consumer<Cell> visitor){
+        int fromLat = latCell(minLat);
+        int toLat = latCell(maxLat);
+        int fromLon = (int) Math.floor((minLon + 180) / CELL_DEGREES);
+        int lonCount = Math.min(LON_CELLS, (int) Math.floor((maxLon + 180) / CELL_DEGREES) - fromLon + 1);
+
+        if((long) (toLat - fromLat + 1) * lonCount > cells.size()){
+            cells.forEach((key, cell) -> {
+                long latCell = key / LON_CELLS;
+                int lonOffset = Math.floorMod((int) (key % LON_CELLS) - fromLon, LON_CELLS);
+                if(latCell >= fromLat && latCell <= toLat && lonOffset < lonCount){
+                    visitor.accept(cell);
+                }
+            });
+            return;
+        }
+
+        for(int latCell = fromLat; latCell <= toLat; latCell++){
+            for(int k = 0; k < lonCount; k++){
+                Cell cell = cells.get(cellKey(latCell, Math.floorMod(fromLon + k, LON_CELLS)));
+                if(cell != null){
+                    visitor.accept(cell);
+                }
+            }
+        }
+    }
+
+    private void removeLocked(Long id){
+        Long key = cellOf.remove(id);
+        if(key == null){
+            return;
+        }
+        Cell cell = cells.get(key);
+        if(cell != null){
+            cell.remove(id);
+            if(cell.size == 0){
+                cells.remove(key);
+            }
+        }
+    }
+
+    private static int latCell(double latitude){
+        return Math.min(LAT_CELLS - 1, (int) Math.floor((latitude + 90) / CELL_DEGREES));
+    }
+
+    private static int lonCell(double longitude){
+        return Math.floorMod((int) Math.floor((longitude + 180) / CELL_DEGREES), LON_CELLS);
+    }
+
+    private static long cellKey(int latCell, int lonCell){
+        return (long) latCell * LON_CELLS + lonCell;
+    }
+
+    private static double normalizeLon(double longitude){
+        return longitude > 180 ? longitude - 360 : longitude;
+    }
+
+    //points of one grid cell in parallel primitive arrays (cos of latitude kept for the distance check)
+    private static final class Cell {
+        final double minLat;
+        final double centreLat;
+        final double centreLon;
+        long[] ids = new long[4];
+        double[] lats = new double[4];
+        double[] lons = new double[4];
+        double[] cosLats = new double[4];
+        int size;
+
+        Cell(int latCell, int lonCell){
+            this.minLat = latCell * CELL_DEGREES - 90;
+            this.centreLat = minLat + CELL_DEGREES / 2;
+            this.centreLon = lonCell * CELL_DEGREES - 180 + CELL_DEGREES / 2;
+        }
+
+        void add(long id, double lat, double lon){
+            if(size == ids.length){
+                ids = Arrays.copyOf(ids, size * 2);
+                lats = Arrays.copyOf(lats, size * 2);
+                lons = Arrays.copyOf(lons, size * 2);
+                cosLats = Arrays.copyOf(cosLats, size * 2);
+            }
+            ids[size] = id;
+            lats[size] = lat;
+            lons[size] = lon;
+            cosLats[size] = Math.cos(Math.toRadians(lat));
+            size++;
+        }
+
+        //lower bound of the distance from any point on this latitude to any point in the cell
+        double latGapKm(double latitude){
+            double gap = Math.max(0, Math.max(minLat - latitude, latitude - (minLat + CELL_DEGREES)));
+            return gap * KM_PER_DEGREE;
+        }
+
+        double centreDistanceKm(double latitude, double longitude){
+            return distanceKm(latitude, longitude, centreLat, centreLon);
+        }
+
+        //order inside a cell does not matter, so the last point fills the gap
+        void remove(long id){
+            for(int i = 0; i < size; i++){
+                if(ids[i] == id){
+                    size--;
+                    ids[i] = ids[size];
+                    lats[i] = lats[size];
+                    lons[i] = lons[size];
+                    cosLats[i] = cosLats[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    //keeps the limit nearest hits seen so far (max-heap on distance)
+    private static final class TopHits {
+        private final int limit;
+        private final double maxDistanceKm;
+        private final PriorityQueue<Hit> heap;
+
+        TopHits(int limit, double maxDistanceKm){
+            this.limit = limit;
+            this.maxDistanceKm = maxDistanceKm;
+            this.heap = new PriorityQueue<>(Comparator.comparingDouble(Hit::distanceKm).reversed());
+        }
+
+        private double boundKm;
+        private double boundTerm = -1;
+
+        //farthest distance that can still make it into the result
+        double boundKm(){
+            if(limit <= 0){
+                return -1;
+            }
+            return heap.size() < limit ? maxDistanceKm : heap.peek().distanceKm();
+        }
+
+        //the same bound as a haversine term, recomputed only when the bound moves
+        double boundTerm(){
+            double bound = boundKm();
+            if(boundTerm < 0 || bound != boundKm){
+                boundKm = bound;
+                boundTerm = haversineTermFor(bound);
+            }
+            return boundTerm;
+        }
+
+        void offer(long id, double lat, double lon, double distance){
+            if(limit <= 0 || distance > maxDistanceKm){
+                return;
+            }
+            if(heap.size() < limit){
+                heap.add(new Hit(id, lat, lon, distance));
+            }else if(distance < heap.peek().distanceKm()){
+                heap.poll();
+                heap.add(new Hit(id, lat, lon, distance));
+            }
+        }
+
+        List<Hit> sorted(){
+            List<Hit> hits = new ArrayList<>(heap);
+            hits.sort(Comparator.comparingDouble(Hit::distanceKm).thenComparingLong(Hit::id));
+            return hits;
+        }
+    }
+}
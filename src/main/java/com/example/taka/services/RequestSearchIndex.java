@@ -0,0 +1,208 @@
+package com.example.taka.services;
+
+import com.example.taka.dto.ListingDtos;
+import com.example.taka.models.Request;
+import com.example.taka.repos.RequestRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/*
+ * In-memory inverted index over Request title, description, category and location.
+ * Built once at startup, then kept current by ListingService after each commit (repaired from the
+ * outbox by ListingViewSubscriber).
+ *
+ * Terms are case-folded and split on anything that is not a letter or digit.
+ * Every query term must match a document term exactly or as a prefix ("bik" finds "bike"); terms shorter
+ * than MIN_PREFIX_LENGTH only match exactly, a one-letter prefix would pull in most of the dictionary.
+ * Hits are ranked by field-weighted tf-idf, exact matches scoring higher than prefix matches.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RequestSearchIndex {
+    private static final Pattern SPLIT = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int TITLE_WEIGHT = 4;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int LOCATION_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final double PREFIX_FACTOR = 0.5;
+    static final int MIN_PREFIX_LENGTH = 3;
+    private static final int REBUILD_BATCH = 1000;
+
+    /* one page of ranked ids plus the total number of matches*/
+    public record Hits(List<Long> ids, long total){}
+
+    private final RequestRepository requestRepo;
+
+    //term -> (request id -> weighted term frequency). Sorted so prefixes are a range scan
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    //request id -> its terms, needed to remove/replace a document
+    private final Map<Long, Set<String>> documentTerms = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild(){
+        long start = System.currentTimeMillis();
+        long afterId = 0;
+        int count = 0;
+        List<ListingDtos.SearchDocument> batch;
+        do{
+            batch = requestRepo.findSearchDocumentsAfter(afterId, PageRequest.of(0, REBUILD_BATCH));
+            for(ListingDtos.SearchDocument doc : batch){
+                index(doc);
+                afterId = doc.id();
+            }
+            count += batch.size();
+        }while(batch.size() == REBUILD_BATCH);
+        log.info("search index built: {} requests in {} ms", count, System.currentTimeMillis() - start);
+    }
+
+    public void index(Request request){
+        index(new ListingDtos.SearchDocument(request.getId(), request.getTitle(), request.getDescription(), request.getCategory(), request.getLocation()));
+    }
+
+    public void index(ListingDtos.SearchDocument doc){
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, doc.title(), TITLE_WEIGHT);
+        addTerms(terms, doc.category(), CATEGORY_WEIGHT);
+        addTerms(terms, doc.location(), LOCATION_WEIGHT);
+        addTerms(terms, doc.description(), DESCRIPTION_WEIGHT);
+
+        lock.writeLock().lock();
+        try{
+            removeLocked(doc.id());
+            terms.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(doc.id(), weight));
+            documentTerms.put(doc.id(), terms.keySet());
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id){
+        lock.writeLock().lock();
+        try{
+            removeLocked(id);
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size(){
+        lock.readLock().lock();
+        try{
+            return documentTerms.size();
+        }finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+     * Ranked ids for the given page. Ties go to the newer (higher id) request.
+     * Only the hits up to the end of the page are kept in order (a bounded heap), not every match.
+     */
+    public Hits search(String query, int page, int size){
+        List<String> queryTerms = tokenize(query).stream().distinct().toList();
+        if(queryTerms.isEmpty()){
+            return new Hits(List.of(), 0);
+        }
+
+        Map<Long, Double> scores;
+        lock.readLock().lock();
+        try{
+            scores = scoreLocked(queryTerms);
+        }finally{
+            lock.readLock().unlock();
+        }
+
+        Comparator<Map.Entry<Long, Double>> rank = Map.Entry.<Long, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+        int from = (int) Math.min((long) page * size, scores.size());
+        int to = (int) Math.min((long) from + size, scores.size());
+
+        //worst of the best `to` hits at the head, so a weaker hit is dropped straight away
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(Math.max(to, 1), rank.reversed());
+        for(Map.Entry<Long, Double> hit : scores.entrySet()){
+            if(top.size() < to){
+                top.add(hit);
+            }else if(to > 0 && rank.compare(hit, top.peek()) < 0){
+                top.poll();
+                top.add(hit);
+            }
+        }
+        List<Map.Entry<Long, Double>> best = new ArrayList<>(top);
+        best.sort(rank);
+        List<Long> ids = best.subList(from, to).stream().map(Map.Entry::getKey).toList();
+        return new Hits(ids, scores.size());
+    }
+
+    //AND semantics: a document survives only if every query term matched something
+    private Map<Long, Double> scoreLocked(List<String> queryTerms){
+        double docCount = Math.max(documentTerms.size(), 1);
+        Map<Long, Double> scores = null;
+
+        for(String queryTerm : queryTerms){
+            Map<Long, Double> termScores = new HashMap<>();
+            String upTo = queryTerm.length() < MIN_PREFIX_LENGTH ? queryTerm : queryTerm + Character.MAX_VALUE;
+            for(Map.Entry<String, Map<Long, Integer>> entry : postings.subMap(queryTerm, true, upTo, true).entrySet()){
+                Map<Long, Integer> docs = entry.getValue();
+                double idf = Math.log(1 + docCount / docs.size());
+                double factor = entry.getKey().equals(queryTerm) ? 1.0 : PREFIX_FACTOR;
+                for(Map.Entry<Long, Integer> doc : docs.entrySet()){
+                    //best matching variant of this query term counts, not the sum of all prefixes
+                    termScores.merge(doc.getKey(), doc.getValue() * idf * factor, Math::max);
+                }
+            }
+
+            if(scores == null){
+                scores = termScores;
+            }else{
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((id, score) -> score + termScores.get(id));
+            }
+            if(scores.isEmpty()){
+                break;
+            }
+        }
+        return scores;
+    }
+
+    private void removeLocked(Long id){
+        Set<String> terms = documentTerms.remove(id);
+        if(terms == null){
+            return;
+        }
+        for(String term : terms){
+            Map<Long, Integer> docs = postings.get(term);
+            if(docs != null){
+                docs.remove(id);
+                if(docs.isEmpty()){
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int weight){
+        for(String term : tokenize(text)){
+            terms.merge(term, weight, Integer::sum);
+        }
+    }
+
+    static List<String> tokenize(String text){
+        if(text == null || text.isBlank()){
+            return List.of();
+        }
+        return Arrays.stream(SPLIT.split(text.toLowerCase(Locale.ROOT)))
+                .filter(t -> !t.isEmpty())
+                .toList();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.taka.services;
+
+import com.example.taka.models.UserProfile;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/*
+ * In-process cache of UserProfile snapshots keyed by email and by id.
+ * Entries are detached copies, so they are safe to share between requests.
+ * Anything that changes or removes a user must call evict().
+ * Hit/miss/eviction counts are published as cache.* metrics (users.byEmail, users.byId).
+ */
+@Component
+public class UserProfileCache {
+    private final Cache<String, UserProfile> byEmail;
+    private final Cache<Long, UserProfile> byId;
+
+    public UserProfileCache(
+            @Value("${app.cache.users.max-size:10000}") long maxSize,
+            @Value("${app.cache.users.ttl:10m}") Duration ttl,
+            MeterRegistry meterRegistry){
+        this.byEmail = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        this.byId = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byEmail, "users.byEmail");
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users.byId");
+    }
+
+    //cached user for this email, loader runs on a miss. Loader exceptions propagate and nothing is cached
+    public UserProfile getByEmail(String email, Function<String, UserProfile> loader){
+        UserProfile cached = byEmail.getIfPresent(email);
+        if(cached != null){
+            return cached;
+        }
+        return put(loader.apply(email));
+    }
+
+    public UserProfile getById(Long id, Function<Long, UserProfile> loader){
+        UserProfile cached = byId.getIfPresent(id);
+        if(cached != null){
+            return cached;
+        }
+        return put(loader.apply(id));
+    }
+
+    public void evict(UserProfile user){
+        if(user.getEmail() != null){
+            byEmail.invalidate(user.getEmail());
+        }
+        if(user.getId() != null){
+            byId.invalidate(user.getId());
+        }
+    }
+
+    public void evictEmail(String email){
+        byEmail.invalidate(email);
+    }
+
+    private UserProfile put(UserProfile loaded){
+        UserProfile snapshot = snapshot(loaded);
+        byEmail.put(snapshot.getEmail(), snapshot);
+        byId.put(snapshot.getId(), snapshot);
+        return snapshot;
+    }
+
+    //detached copy, never attached to any persistence context
+    private static UserProfile snapshot(UserProfile user){
+        return UserProfile.builder()
+                .id(user.getId())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .email(user.getEmail())
+                .passwordHarsh(user.getPasswordHarsh())
+                .bio(user.getBio())
+                .profileImage(user.getProfileImage())
+                .phoneNumber(user.getPhoneNumber())
+                .enabled(user.isEnabled())
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .user_role(user.getUser_role())
+                .tokenVersion(user.getTokenVersion())
+                .build();
+    }
+}
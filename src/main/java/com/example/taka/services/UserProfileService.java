@@ -4,6 +4,7 @@ import com.example.taka.dto.UserProfileDtos;
 import com.example.taka.models.UserProfile;
 import com.example.taka.models.UserRole;
 import com.example.taka.repos.UserProfileRepository;
+import com.example.taka.security.TokenVersionRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -18,17 +19,20 @@ import java.util.List;
 public class UserProfileService {
     private final UserProfileRepository userProfileRepo;
     private final PasswordEncoder passwordEncoder;
+    private final TokenVersionRegistry tokenVersions;
+    private final UserProfileCache userCache;
 
     public Page<UserProfile> findAll(Pageable pageable){
         return userProfileRepo.findAll(pageable);
     }
 
+    //served from UserProfileCache; the returned snapshot is read-only, load from the repo to modify a user
     public UserProfile findById(Long id){
-        return userProfileRepo.findById(id).orElseThrow(() -> new RuntimeException("User "+ id +" not found "));
+        return userCache.getById(id, this::loadById);
     }
 
     public UserProfile findByEmail(String email){
-        return userProfileRepo.findByEmail(email).orElseThrow(()->new RuntimeException("User with email: "+email +" not found"));
+        return userCache.getByEmail(email, e -> userProfileRepo.findByEmail(e).orElseThrow(()->new RuntimeException("User with email: "+e +" not found")));
     }
 
     public List<UserProfile> finderByfNameOrlName(String fName, String lName){
@@ -36,11 +40,20 @@ public class UserProfileService {
     }
 
     public UserProfile createUser(UserProfile user ){
-        return userProfileRepo.save(user);
+        UserProfile saved = userProfileRepo.save(user);
+        userCache.evict(saved);
+        return saved;
     }
 
     public UserProfile update(Long id, UserProfile updatedProf){
-        UserProfile existing = findById(id);
+        //managed entity, not the cached snapshot
+        UserProfile existing = loadById(id);
+
+        //role or verification changes must not keep living inside already issued tokens
+        if(existing.isEnabled() != updatedProf.isEnabled() || existing.getUser_role() != updatedProf.getUser_role()){
+            tokenVersions.bump(existing);
+        }
+
         existing.setFirstName(updatedProf.getFirstName());
         existing.setLastName(updatedProf.getLastName());
         existing.setBio(updatedProf.getBio());
@@ -50,11 +63,21 @@ public class UserProfileService {
         existing.setUpdatedAt(LocalDateTime.now());
         existing.setUser_role(updatedProf.getUser_role());
 
-        return userProfileRepo.save(existing);
+        UserProfile saved = userProfileRepo.save(existing);
+        userCache.evict(saved);
+        return saved;
     }
 
     public void delete(Long id){
-        userProfileRepo.deleteById(id);
+        userProfileRepo.findById(id).ifPresent(user -> {
+            userProfileRepo.delete(user);
+            userCache.evict(user);
+        });
+        tokenVersions.revokeAll(id);
+    }
+
+    private UserProfile loadById(Long id){
+        return userProfileRepo.findById(id).orElseThrow(() -> new RuntimeException("User "+ id +" not found "));
     }
 
 
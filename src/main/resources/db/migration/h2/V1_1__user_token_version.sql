@@ -0,0 +1,2 @@
+-- Per-user token version (TokenVersionRegistry): bumped to revoke every JWT issued to the user so far.
+alter table user_profile add column token_version integer default 0 not null;
@@ -0,0 +1,5 @@
+-- Request ids come from a pooled sequence (allocationSize 50) instead of IDENTITY, so batch inserts can be JDBC-batched.
+-- Hibernate treats the first value it reads as the top of a block of 50: start 50 above the highest existing id.
+alter table request alter column id drop identity;
+create sequence request_seq start with 1 increment by 50;
+alter sequence request_seq restart with (select coalesce(max(id), 0) + 50 from request);
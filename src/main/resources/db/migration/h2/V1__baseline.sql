@@ -0,0 +1,50 @@
+-- Schema as generated by Hibernate (ddl-auto=update) before Flyway took over: what existing databases are baselined at.
+
+create table user_profile (
+    id bigint generated by default as identity,
+    first_name varchar(50) not null,
+    last_name varchar(50) not null,
+    email varchar(100) not null,
+    password_harsh varchar(255) not null,
+    bio varchar(250),
+    profile_image varchar(255),
+    phone_number varchar(20),
+    enabled boolean not null,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null,
+    user_role enum ('ADMIN','USER') not null,
+    primary key (id),
+    constraint uk_user_profile_email unique (email)
+);
+
+create table request (
+    id bigint generated by default as identity,
+    title varchar(100) not null,
+    description varchar(500) not null,
+    owner_id bigint not null,
+    image_url varchar(255),
+    offer_price numeric(38,2),
+    category varchar(100),
+    location varchar(100) not null,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    status enum ('FULFILLED','OPEN'),
+    content_status enum ('ALLOWED','HIDDEN','REMOVED') not null,
+    primary key (id),
+    constraint fk_request_owner foreign key (owner_id) references user_profile
+);
+
+create table reply (
+    id bigint generated by default as identity,
+    replier_id bigint not null,
+    message varchar(500) not null,
+    image_url varchar(255),
+    price numeric(7,1) not null,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    content_status enum ('ALLOWED','HIDDEN','REMOVED') not null,
+    request_id bigint not null,
+    primary key (id),
+    constraint fk_reply_replier foreign key (replier_id) references user_profile,
+    constraint fk_reply_request foreign key (request_id) references request
+);
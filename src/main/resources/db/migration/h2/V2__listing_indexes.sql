@@ -0,0 +1,16 @@
+-- Indexes for the RequestRepository / ReplyRepository queries (see ListingIndexPlanTest).
+
+-- feed (created_at desc, id desc seek), paged list sorted by createdAt
+create index idx_request_created_id on request (created_at, id);
+-- title lookup
+create index idx_request_title on request (title);
+-- owner join / foreign key (Oracle does not index foreign keys by itself)
+create index idx_request_owner on request (owner_id);
+
+-- replies of a request in id order, reply stats/version aggregates
+create index idx_reply_request_id on reply (request_id, id);
+-- paged replies sorted by price or createdAt
+create index idx_reply_request_price on reply (request_id, price, id);
+create index idx_reply_request_created on reply (request_id, created_at, id);
+-- replies of a user / foreign key
+create index idx_reply_replier on reply (replier_id);
@@ -0,0 +1,3 @@
+-- Optional coordinates for proximity search; indexed in memory by RequestGeoIndex.
+alter table request add column latitude float(53);
+alter table request add column longitude float(53);
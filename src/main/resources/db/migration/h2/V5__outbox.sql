@@ -0,0 +1,19 @@
+-- Transactional outbox for listing changes: written with the change, drained by OutboxRelay.
+
+create sequence outbox_event_seq start with 1 increment by 50;
+
+create table outbox_event (
+    id bigint not null,
+    aggregate_id bigint not null,
+    event_type varchar(50) not null,
+    payload clob,
+    created_at timestamp(6) not null,
+    available_at timestamp(6) not null,
+    attempts integer default 0 not null,
+    primary key (id)
+);
+
+-- due rows in id order
+create index idx_outbox_available on outbox_event (available_at, id);
+-- earlier rows of the same request (per-request ordering)
+create index idx_outbox_aggregate on outbox_event (aggregate_id, id);
@@ -0,0 +1,22 @@
+-- Rotating refresh tokens (see RefreshTokenService); only a SHA-256 of each token is stored.
+
+create table refresh_token (
+    id bigint generated by default as identity,
+    user_id bigint not null,
+    token_hash varchar(64) not null,
+    family_id varchar(36) not null,
+    token_version integer not null,
+    created_at timestamp(6) not null,
+    expires_at timestamp(6) not null,
+    revoked_at timestamp(6),
+    primary key (id),
+    constraint uk_refresh_token_hash unique (token_hash),
+    constraint fk_refresh_token_user foreign key (user_id) references user_profile on delete cascade
+);
+
+-- revoke a whole family on reuse
+create index idx_refresh_token_family on refresh_token (family_id);
+-- expiry sweep
+create index idx_refresh_token_expires on refresh_token (expires_at);
+-- foreign key
+create index idx_refresh_token_user on refresh_token (user_id);
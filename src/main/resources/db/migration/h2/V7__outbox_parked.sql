@@ -0,0 +1,3 @@
+-- Outbox rows that failed app.outbox.max-attempts deliveries are parked instead of retried forever.
+
+alter table outbox_event add column parked_at timestamp(6);
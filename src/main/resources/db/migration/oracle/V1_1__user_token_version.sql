@@ -0,0 +1,2 @@
+-- Per-user token version (TokenVersionRegistry): bumped to revoke every JWT issued to the user so far.
+alter table user_profile add token_version number(10,0) default 0 not null;
@@ -0,0 +1,11 @@
+-- Request ids come from a pooled sequence (allocationSize 50) instead of IDENTITY, so batch inserts can be JDBC-batched.
+-- Hibernate treats the first value it reads as the top of a block of 50: start 50 above the highest existing id.
+alter table request modify (id drop identity);
+
+declare
+    first_id number;
+begin
+    select coalesce(max(id), 0) + 50 into first_id from request;
+    execute immediate 'create sequence request_seq start with ' || first_id || ' increment by 50';
+end;
+/
@@ -0,0 +1,51 @@
+-- Schema as generated by Hibernate (ddl-auto=update) before Flyway took over, Oracle 23ai: what existing databases are baselined at.
+-- Databases that already have these tables are baselined at V1 and skip this script.
+
+create table user_profile (
+    id number(19,0) generated by default as identity,
+    first_name varchar2(50 char) not null,
+    last_name varchar2(50 char) not null,
+    email varchar2(100 char) not null,
+    password_harsh varchar2(255 char) not null,
+    bio varchar2(250 char),
+    profile_image varchar2(255 char),
+    phone_number varchar2(20 char),
+    enabled boolean not null,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null,
+    user_role varchar2(255 char) not null check (user_role in ('ADMIN','USER')),
+    primary key (id),
+    constraint uk_user_profile_email unique (email)
+);
+
+create table request (
+    id number(19,0) generated by default as identity,
+    title varchar2(100 char) not null,
+    description varchar2(500 char) not null,
+    owner_id number(19,0) not null,
+    image_url varchar2(255 char),
+    offer_price number(38,2),
+    category varchar2(100 char),
+    location varchar2(100 char) not null,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    status varchar2(255 char) check (status in ('FULFILLED','OPEN')),
+    content_status varchar2(255 char) not null check (content_status in ('ALLOWED','HIDDEN','REMOVED')),
+    primary key (id),
+    constraint fk_request_owner foreign key (owner_id) references user_profile
+);
+
+create table reply (
+    id number(19,0) generated by default as identity,
+    replier_id number(19,0) not null,
+    message varchar2(500 char) not null,
+    image_url varchar2(255 char),
+    price number(7,1) not null,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    content_status varchar2(255 char) not null check (content_status in ('ALLOWED','HIDDEN','REMOVED')),
+    request_id number(19,0) not null,
+    primary key (id),
+    constraint fk_reply_replier foreign key (replier_id) references user_profile,
+    constraint fk_reply_request foreign key (request_id) references request
+);
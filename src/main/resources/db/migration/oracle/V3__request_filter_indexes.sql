@@ -0,0 +1,7 @@
+-- Indexes for GET /api/requests/filter (RequestSpecs): equality column first, then the usual range/sort column.
+
+create index idx_request_category_price on request (category, offer_price);
+create index idx_request_location_price on request (location, offer_price);
+create index idx_request_status_created on request (status, created_at);
+-- price range without any equality filter
+create index idx_request_price on request (offer_price);
@@ -0,0 +1,2 @@
+-- Optional coordinates for proximity search; indexed in memory by RequestGeoIndex.
+alter table request add (latitude float(53), longitude float(53));
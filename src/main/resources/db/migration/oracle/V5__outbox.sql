@@ -0,0 +1,19 @@
+-- Transactional outbox for listing changes: written with the change, drained by OutboxRelay.
+
+create sequence outbox_event_seq start with 1 increment by 50;
+
+create table outbox_event (
+    id number(19,0) not null,
+    aggregate_id number(19,0) not null,
+    event_type varchar2(50 char) not null,
+    payload clob,
+    created_at timestamp(6) not null,
+    available_at timestamp(6) not null,
+    attempts number(10,0) default 0 not null,
+    primary key (id)
+);
+
+-- due rows in id order
+create index idx_outbox_available on outbox_event (available_at, id);
+-- earlier rows of the same request (per-request ordering)
+create index idx_outbox_aggregate on outbox_event (aggregate_id, id);
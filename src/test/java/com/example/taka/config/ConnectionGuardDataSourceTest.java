@@ -0,0 +1,110 @@
+package com.example.taka.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class ConnectionGuardDataSourceTest {
+
+    private static DataSource pool() throws SQLException{
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(inv -> mock(Connection.class));
+        return target;
+    }
+
+    @Test
+    void permitIsReturnedOnceOnClose() throws Exception{
+        ConnectionGuardDataSource guard = new ConnectionGuardDataSource(pool(), 2, Duration.ofSeconds(1));
+
+        Connection first = guard.getConnection();
+        Connection second = guard.getConnection();
+        assertThat(guard.getAvailablePermits()).isZero();
+
+        first.close();
+        first.close();
+        assertThat(guard.getAvailablePermits()).isEqualTo(1);
+        second.close();
+        assertThat(guard.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void callsOtherThanCloseReachTheTargetConnection() throws Exception{
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        ConnectionGuardDataSource guard = new ConnectionGuardDataSource(target, 1, Duration.ofSeconds(1));
+
+        try(Connection guarded = guard.getConnection()){
+            assertThat(guarded.getAutoCommit()).isTrue();
+        }
+        verify(connection).close();
+    }
+
+    @Test
+    void timesOutWhenAllPermitsAreHeld() throws Exception{
+        ConnectionGuardDataSource guard = new ConnectionGuardDataSource(pool(), 1, Duration.ofMillis(50));
+        Connection held = guard.getConnection();
+
+        assertThatThrownBy(guard::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        held.close();
+        assertThat(guard.getConnection()).isNotNull();
+    }
+
+    @Test
+    void failedAcquisitionGivesThePermitBack() throws Exception{
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenThrow(new SQLException("down"));
+        ConnectionGuardDataSource guard = new ConnectionGuardDataSource(target, 1, Duration.ofSeconds(1));
+
+        assertThatThrownBy(guard::getConnection).isInstanceOf(SQLException.class);
+        assertThat(guard.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void thousandsOfVirtualThreadsNeverExceedThePermits() throws Exception{
+        AtomicInteger open = new AtomicInteger();
+        AtomicInteger maxOpen = new AtomicInteger();
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(inv -> {
+            maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+            Connection connection = mock(Connection.class);
+            doAnswer(close -> open.decrementAndGet()).when(connection).close();
+            return connection;
+        });
+        ConnectionGuardDataSource guard = new ConnectionGuardDataSource(target, 10, Duration.ofSeconds(30));
+
+        try(ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()){
+            List<Future<?>> calls = new ArrayList<>();
+            for(int i = 0; i < 2000; i++){
+                calls.add(executor.submit(() -> {
+                    try(Connection ignored = guard.getConnection()){
+                        Thread.sleep(1);
+                    }
+                    return null;
+                }));
+            }
+            for(Future<?> call : calls){
+                call.get();
+            }
+        }
+
+        assertThat(maxOpen.get()).isEqualTo(10);
+        assertThat(guard.getAvailablePermits()).isEqualTo(10);
+    }
+}
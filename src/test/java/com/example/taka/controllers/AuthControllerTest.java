@@ -2,8 +2,14 @@ package com.example.taka.controllers;
 
 import com.example.taka.models.UserProfile;
 import com.example.taka.repos.UserProfileRepository;
+import com.example.taka.security.BoundedPasswordEncoder;
 import com.example.taka.security.JwtUtil;
+import com.example.taka.security.VerifiedToken;
+import com.example.taka.services.RefreshTokenService;
+import com.example.taka.security.RevokedTokenRegistry;
+import com.example.taka.security.TokenVersionRegistry;
 import com.example.taka.services.CustomUserDetailsService;
+import com.example.taka.services.UserProfileCache;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -11,14 +17,18 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -46,16 +56,74 @@ class AuthControllerTest {
    @MockitoBean
    CustomUserDetailsService customUserDetailsService;
 
+   @MockitoBean
+   TokenVersionRegistry tokenVersionRegistry;
+   @MockitoBean
+   RevokedTokenRegistry revokedTokenRegistry;
+
+   @MockitoBean
+   UserProfileCache userProfileCache;
+
+   @MockitoBean
+   RefreshTokenService refreshTokenService;
+
    @Test
    void loginSuccess() throws Exception {
       String email = "as@hd.com", pass = "pwd";
-      when(jwtUtil.generateToken(email)).thenReturn("fake.token");
+      UserProfile user = new UserProfile();
+      user.setEmail(email);
+      when(userRepo.findByEmail(email)).thenReturn(Optional.of(user));
+      when(jwtUtil.generateToken(user)).thenReturn("fake.token");
+      when(jwtUtil.getExpirationMs()).thenReturn(900_000L);
+      when(refreshTokenService.issue(user)).thenReturn("fake.refresh");
 
       mvc.perform(post("/api/auth/login")
                       .contentType(APPLICATION_JSON)
                       .content("{\"email\":\"" + email + "\",\"password\":\"" + pass + "\"}"))
               .andExpect(status().isOk())
-              .andExpect(jsonPath("$.token").value("fake.token"));
+              .andExpect(jsonPath("$.token").value("fake.token"))
+              .andExpect(jsonPath("$.refreshToken").value("fake.refresh"))
+              .andExpect(jsonPath("$.expiresIn").value(900));
+   }
+
+   @Test
+   void refreshRotatesTheRefreshToken() throws Exception {
+      UserProfile user = new UserProfile();
+      user.setEmail("as@hd.com");
+      when(refreshTokenService.rotate("old.refresh")).thenReturn(new RefreshTokenService.Rotation(user, "new.refresh"));
+      when(jwtUtil.generateToken(user)).thenReturn("new.token");
+
+      mvc.perform(post("/api/auth/refresh")
+                      .contentType(APPLICATION_JSON)
+                      .content("{\"refreshToken\":\"old.refresh\"}"))
+              .andExpect(status().isOk())
+              .andExpect(jsonPath("$.token").value("new.token"))
+              .andExpect(jsonPath("$.refreshToken").value("new.refresh"));
+   }
+
+   @Test
+   void refreshWithInvalidToken_thenUnauthorized() throws Exception {
+      when(refreshTokenService.rotate("stolen")).thenThrow(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token"));
+
+      mvc.perform(post("/api/auth/refresh")
+                      .contentType(APPLICATION_JSON)
+                      .content("{\"refreshToken\":\"stolen\"}"))
+              .andExpect(status().isUnauthorized());
+   }
+
+   @Test
+   void logoutRevokesRefreshAndAccessToken() throws Exception {
+      Instant expiresAt = Instant.now().plusSeconds(600);
+      when(jwtUtil.verify("access.token")).thenReturn(new VerifiedToken("as@hd.com", expiresAt, Instant.now(), "USER", 1L, true, 0, "jti-1"));
+
+      mvc.perform(post("/api/auth/logout")
+                      .header("Authorization", "Bearer access.token")
+                      .contentType(APPLICATION_JSON)
+                      .content("{\"refreshToken\":\"old.refresh\"}"))
+              .andExpect(status().isNoContent());
+
+      verify(refreshTokenService).revoke("old.refresh");
+      verify(revokedTokenRegistry).revoke("jti-1", expiresAt);
    }
 
    @Test
@@ -68,6 +136,17 @@ class AuthControllerTest {
               .andExpect(status().isUnauthorized());
    }
 
+   @Test
+   void loginWhenHashingIsSaturated_thenTooManyRequestsWithRetryAfter() throws Exception {
+      doThrow(new BoundedPasswordEncoder.OverloadedException()).when(authManager).authenticate(any());
+
+      mvc.perform(post("/api/auth/login")
+                      .contentType(APPLICATION_JSON)
+                      .content("{\"email\":\"xhd@g.com\",\"password\":\"y\"}"))
+              .andExpect(status().isTooManyRequests())
+              .andExpect(header().string("Retry-After", "1"));
+   }
+
    @Test
    void registerSuccess() throws Exception {
       // simulate “no existing user”
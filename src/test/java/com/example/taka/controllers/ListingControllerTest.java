@@ -1,5 +1,6 @@
 package com.example.taka.controllers;
 
+import com.example.taka.dto.ListingDtos;
 import com.example.taka.dto.ListingDtos.CreateRequestDto;
 import com.example.taka.dto.ListingDtos.ResponseToRequestDto;
 import com.example.taka.models.Request;
@@ -7,8 +8,13 @@ import com.example.taka.models.RequestStatus;
 import com.example.taka.models.UserProfile;
 import com.example.taka.repos.ReplyRepository;
 import com.example.taka.security.JwtUtil;
+import com.example.taka.security.RevokedTokenRegistry;
+import com.example.taka.security.TokenVersionRegistry;
 import com.example.taka.services.CustomUserDetailsService;
+import com.example.taka.services.ListingBulkService;
 import com.example.taka.services.ListingService;
+import com.example.taka.services.ListingVersions;
+import com.example.taka.services.ReplyStreamHub;
 import com.example.taka.services.UserProfileService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -19,21 +25,31 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.security.Principal;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ListingController.class)
@@ -45,6 +61,10 @@ class ListingControllerTest {
     private JwtUtil jwtUtil;
     @MockitoBean
     private CustomUserDetailsService userDetailsService;
+    @MockitoBean
+    private TokenVersionRegistry tokenVersionRegistry;
+    @MockitoBean
+    private RevokedTokenRegistry revokedTokenRegistry;
 
     //Others
     @Autowired
@@ -59,6 +79,12 @@ class ListingControllerTest {
     @MockitoBean
     private UserProfileService userProfileService;
 
+    @MockitoBean
+    private ListingBulkService listingBulkService;
+
+    @MockitoBean
+    private ReplyStreamHub replyStreamHub;
+
     //autowired objectMapper to convert java objects to/from json. Serialization
     @Autowired
     private ObjectMapper objectMapper;
@@ -187,4 +213,72 @@ class ListingControllerTest {
 
 
     }
+
+    //GET /api/requests/{id} answers 304 without a body when the client's ETag is still current
+    @Test
+    void whenGetSingleRequestWithCurrentEtag_thenNotModified() throws Exception {
+        var dto = new ResponseToRequestDto(1L, "Sample", null, null, null, null, null,
+                LocalDateTime.now(), LocalDateTime.now(), RequestStatus.OPEN.name(), "ALLOWED", "some@some.com");
+        when(listingService.getRequestDto(1L)).thenReturn(dto);
+        when(listingService.requestValidators(dto)).thenReturn(
+                new ListingVersions.Validators("\"abc\"", Instant.parse("2025-01-01T12:00:00Z")));
+
+        mockMvc.perform(get("/api/requests/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+                .andExpect(jsonPath("$.title").value("Sample"));
+
+        mockMvc.perform(get("/api/requests/1").header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    //POST /api/requests/import streams the NDJSON body to the bulk service and answers as NDJSON
+    @Test
+    void whenPostNdjsonImport_thenBodyIsStreamedToBulkService() throws Exception {
+        String email = "admin@taka.com";
+        UserProfile admin = new UserProfile();
+        admin.setEmail(email);
+        admin.setEnabled(true);
+        when(userProfileService.findByEmail(email)).thenReturn(admin);
+
+        when(listingBulkService.importRequests(any(), any(), eq(admin))).thenAnswer(inv -> {
+            java.io.OutputStream out = inv.getArgument(1);
+            out.write("{\"lines\":1,\"created\":1,\"failed\":0}\n".getBytes());
+            return new ListingDtos.ImportSummary(1, 1, 0);
+        });
+
+        mockMvc.perform(post("/api/requests/import")
+                        .principal((Principal) () -> email)
+                        .contentType("application/x-ndjson")
+                        .content("{\"title\":\"Bike\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(jsonPath("$.created").value(1));
+    }
+
+    //GET /api/requests/{id}/replies/stream hands the client's Last-Event-ID to the hub
+    @Test
+    void whenStreamReplies_thenSubscribesWithLastEventId() throws Exception {
+        when(listingService.getRequestDto(4L)).thenReturn(new ResponseToRequestDto(4L, "Sample", null, null, null, null, null,
+                LocalDateTime.now(), LocalDateTime.now(), RequestStatus.OPEN.name(), "ALLOWED", "some@some.com"));
+        when(replyStreamHub.subscribe(4L, 17L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/requests/4/replies/stream")
+                        .header("Last-Event-ID", "17")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(replyStreamHub).subscribe(4L, 17L);
+    }
+
+    @Test
+    void whenStreamRepliesOfUnknownRequest_thenNotFound() throws Exception {
+        when(listingService.getRequestDto(9L)).thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "Request not found"));
+
+        mockMvc.perform(get("/api/requests/9/replies/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isNotFound());
+
+        verify(replyStreamHub, never()).subscribe(any(), any());
+    }
 }
@@ -0,0 +1,145 @@
+package com.example.taka.controllers;
+
+import com.example.taka.dto.ListingDtos;
+import com.example.taka.dto.ListingDtos.ResponseToRequestDto;
+import com.example.taka.security.JwtUtil;
+import com.example.taka.security.RevokedTokenRegistry;
+import com.example.taka.security.TokenVersionRegistry;
+import com.example.taka.services.CustomUserDetailsService;
+import com.example.taka.services.ReactiveListingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ReactiveListingController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class ReactiveListingControllerTest {
+
+    @MockitoBean
+    private JwtUtil jwtUtil;
+    @MockitoBean
+    private CustomUserDetailsService userDetailsService;
+    @MockitoBean
+    private TokenVersionRegistry tokenVersionRegistry;
+    @MockitoBean
+    private RevokedTokenRegistry revokedTokenRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ReactiveListingService reactiveListingService;
+
+    private static ResponseToRequestDto dto(long id){
+        return new ResponseToRequestDto(id, "Bike " + id, "desc", null, new BigDecimal("100"), "bikes", "Kampala",
+                LocalDateTime.of(2025, 1, 1, 12, 0), null, "OPEN", "ALLOWED", "owner@taka.com", 2, new BigDecimal("90"), new BigDecimal("95"));
+    }
+
+    @Test
+    void feedPageAsJson() throws Exception{
+        when(reactiveListingService.feedPage(null, 20))
+                .thenReturn(Mono.just(new ListingDtos.CursorPage<>(List.of(dto(2), dto(1)), "next")));
+
+        MvcResult result = mockMvc.perform(get("/api/reactive/requests").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(2))
+                .andExpect(jsonPath("$.items[0].replyCount").value(2))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void feedAsServerSentEvents() throws Exception{
+        when(reactiveListingService.feed("abc", 100)).thenReturn(Flux.just(dto(2), dto(1)));
+
+        MvcResult result = mockMvc.perform(get("/api/reactive/requests").param("cursor", "abc").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+
+        assertThat(result.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        String body = result.getResponse().getContentAsString();
+        assertThat(body).contains("data:{\"id\":2,").contains("data:{\"id\":1,");
+        assertThat(body.indexOf("\"id\":2")).isLessThan(body.indexOf("\"id\":1"));
+    }
+
+    @Test
+    void feedAsNdjson() throws Exception{
+        when(reactiveListingService.feed(null, 5)).thenReturn(Flux.just(dto(3)));
+
+        MvcResult result = mockMvc.perform(get("/api/reactive/requests").param("limit", "5").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+
+        assertThat(result.getResponse().getContentAsString()).startsWith("{\"id\":3,").endsWith("\n");
+    }
+
+    @Test
+    void missingRequestIs404() throws Exception{
+        when(reactiveListingService.getRequest(9L))
+                .thenReturn(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Request not found")));
+
+        MvcResult result = mockMvc.perform(get("/api/reactive/requests/9"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void repliesAsJsonArray() throws Exception{
+        ListingDtos.ResponseToReplyDto reply = new ListingDtos.ResponseToReplyDto(
+                7L, "I have one", null, new BigDecimal("95.0"), LocalDateTime.of(2025, 1, 2, 9, 0), "seller@taka.com", "ALLOWED");
+        when(reactiveListingService.getReplies(1L)).thenReturn(Flux.just(reply));
+
+        MvcResult result = mockMvc.perform(get("/api/reactive/requests/1/replies").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].id").value(7))
+                .andExpect(jsonPath("$[0].replierEmail").value("seller@taka.com"));
+    }
+
+    @Test
+    void repliesAsNdjsonStream() throws Exception{
+        ListingDtos.ResponseToReplyDto reply = new ListingDtos.ResponseToReplyDto(
+                7L, "I have one", null, new BigDecimal("95.0"), LocalDateTime.of(2025, 1, 2, 9, 0), "seller@taka.com", "ALLOWED");
+        when(reactiveListingService.getReplies(1L)).thenReturn(Flux.just(reply, reply));
+
+        MvcResult result = mockMvc.perform(get("/api/reactive/requests/1/replies").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+
+        assertThat(result.getResponse().getContentAsString().lines()).hasSize(2).allMatch(line -> line.startsWith("{\"id\":7,"));
+    }
+}
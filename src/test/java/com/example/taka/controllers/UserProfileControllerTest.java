@@ -3,6 +3,8 @@ package com.example.taka.controllers;
 import com.example.taka.dto.UserProfileDtos;
 import com.example.taka.models.UserProfile;
 import com.example.taka.security.JwtUtil;
+import com.example.taka.security.RevokedTokenRegistry;
+import com.example.taka.security.TokenVersionRegistry;
 import com.example.taka.services.UserProfileService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,6 +37,11 @@ public class UserProfileControllerTest {
     @MockitoBean
     com.example.taka.services.CustomUserDetailsService customUserDetailsService;
 
+    @MockitoBean
+    TokenVersionRegistry tokenVersionRegistry;
+    @MockitoBean
+    RevokedTokenRegistry revokedTokenRegistry;
+
     @Test
     void createAndFetch() throws Exception{
         var now = LocalDateTime.now();
@@ -0,0 +1,148 @@
+package com.example.taka.repos;
+
+import com.example.taka.models.RequestStatus;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Runs every selective RequestRepository / ReplyRepository / OutboxEventRepository query, captures the SQL Hibernate
+ * sends and EXPLAINs it on H2 (schema from the Flyway migrations). Fails on any full table scan.
+ * Unfiltered reads (paged list + count, export stream) scan by design and are not listed here.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.taka.repos.ListingIndexPlanTest$RecordingInspector")
+class ListingIndexPlanTest {
+
+    /* remembers every statement Hibernate prepares*/
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private RequestRepository requestRepo;
+
+    @Autowired
+    private ReplyRepository replyRepo;
+
+    @Autowired
+    private OutboxEventRepository outboxRepo;
+
+    private final List<String> scans = new ArrayList<>();
+
+    @BeforeEach
+    void setUp(){
+        RecordingInspector.SQL.clear();
+    }
+
+    @Test
+    void requestQueries_useIndexes(){
+        LocalDateTime now = LocalDateTime.now();
+
+        explainLast("findRequestDtosByTitle", () -> requestRepo.findRequestDtosByTitle("Bike"));
+        explainLast("findByTitle", () -> requestRepo.findByTitle("Bike"));
+        explainLast("findFeed", () -> requestRepo.findFeed(PageRequest.of(0, 20)));
+        explainLast("findFeedAfter", () -> requestRepo.findFeedAfter(now, 10L, PageRequest.of(0, 20)));
+        explainLast("findRequestDtosByIdIn", () -> requestRepo.findRequestDtosByIdIn(List.of(1L, 2L)));
+        explainLast("findSearchDocumentsAfter", () -> requestRepo.findSearchDocumentsAfter(0L, PageRequest.of(0, 100)));
+        explainLast("findGeoPointsAfter", () -> requestRepo.findGeoPointsAfter(0L, PageRequest.of(0, 100)));
+
+        assertThat(scans).isEmpty();
+    }
+
+    @Test
+    void replyQueries_useIndexes(){
+        explainLast("findReplyDtosByRequestId", () -> replyRepo.findReplyDtosByRequestId(1L));
+        explainLast("findReplyDtosByReplierEmail", () -> replyRepo.findReplyDtosByReplierEmail("a@taka.com"));
+        explainLast("findReplyStatsByRequestIdIn", () -> replyRepo.findReplyStatsByRequestIdIn(List.of(1L, 2L)));
+        explainLast("findReplyVersionByRequestId", () -> replyRepo.findReplyVersionByRequestId(1L));
+        explainLast("findReplyDtosByRequestIdAfter", () -> replyRepo.findReplyDtosByRequestIdAfter(1L, 5L, PageRequest.of(0, 101)));
+        explainLast("findReplyDtoSliceByRequestId(price)", () -> replyRepo.findReplyDtoSliceByRequestId(1L,
+                PageRequest.of(0, 20, Sort.by("price", "id"))));
+        explainLast("findReplyDtoSliceByRequestId(createdAt)", () -> replyRepo.findReplyDtoSliceByRequestId(1L,
+                PageRequest.of(0, 20, Sort.by("createdAt", "id"))));
+
+        assertThat(scans).isEmpty();
+    }
+
+    @Test
+    void outboxQueries_useIndexes(){
+        explainLast("findDue", () -> outboxRepo.findDue(LocalDateTime.now(), PageRequest.of(0, 100)));
+
+        assertThat(scans).isEmpty();
+    }
+
+    @Test
+    void filterQueries_useIndexes(){
+        BigDecimal ten = new BigDecimal("10");
+        PageRequest newest = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt"));
+
+        //page select + count select of each combination
+        explainAll("filter(category)", () -> requestRepo.findAll(RequestSpecs.categoryIs("Bikes"), newest));
+        explainAll("filter(category, price range)", () -> requestRepo.findAll(Specification.allOf(
+                RequestSpecs.categoryIs("Bikes"), RequestSpecs.priceAtLeast(ten), RequestSpecs.priceAtMost(ten)),
+                PageRequest.of(0, 20, Sort.by("offerPrice"))));
+        explainAll("filter(location)", () -> requestRepo.findAll(RequestSpecs.locationIs("Ottawa"), newest));
+        explainAll("filter(status)", () -> requestRepo.findAll(RequestSpecs.statusIs(RequestStatus.OPEN), newest));
+        explainAll("filter(min price)", () -> requestRepo.findAll(RequestSpecs.priceAtLeast(ten), newest));
+
+        assertThat(scans).isEmpty();
+    }
+
+    private void explainLast(String name, Runnable query){
+        query.run();
+        explain(name, RecordingInspector.SQL.get(RecordingInspector.SQL.size() - 1));
+    }
+
+    private void explainAll(String name, Runnable query){
+        int from = RecordingInspector.SQL.size();
+        query.run();
+        for(String sql : RecordingInspector.SQL.subList(from, RecordingInspector.SQL.size())){
+            explain(name, sql);
+        }
+    }
+
+    //EXPLAINs one statement with every parameter bound to null
+    private void explain(String name, String sql){
+        String plan = em.unwrap(Session.class).doReturningWork(connection -> {
+            try(PreparedStatement ps = connection.prepareStatement("EXPLAIN " + sql)){
+                int params = ps.getParameterMetaData().getParameterCount();
+                for(int i = 1; i <= params; i++){
+                    ps.setObject(i, null);
+                }
+                try(ResultSet rs = ps.executeQuery()){
+                    rs.next();
+                    return rs.getString(1);
+                }
+            }
+        });
+        if(plan.contains("tableScan")){
+            scans.add(name + ":\n" + plan);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.taka.repos;
+
+import com.example.taka.dto.ListingDtos;
+import com.example.taka.models.Reply;
+import com.example.taka.models.Request;
+import com.example.taka.models.UserProfile;
+import com.example.taka.models.UserRole;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Read endpoints must cost a constant number of statements per page,
+ * no matter how many distinct owners / repliers the rows belong to.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ListingQueryCountTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private RequestRepository requestRepo;
+
+    @Autowired
+    private ReplyRepository replyRepo;
+
+    private Statistics stats;
+    private Long requestId;
+
+    @BeforeEach
+    void setUp(){
+        stats = emf.unwrap(SessionFactory.class).getStatistics();
+
+        //every request and reply gets its own user so any lazy owner load would show up
+        Request first = null;
+        for(int i = 0; i < 30; i++){
+            UserProfile owner = user("owner" + i);
+            Request r = Request.builder()
+                    .title("Title " + i)
+                    .description("Desc " + i)
+                    .location("Ottawa")
+                    .offerPrice(new BigDecimal("10.0"))
+                    .owner(owner)
+                    .build();
+            em.persist(r);
+            if(first == null){
+                first = r;
+            }
+        }
+        for(int i = 0; i < 10; i++){
+            em.persist(Reply.builder()
+                    .message("Offer " + i)
+                    .price(BigDecimal.valueOf(i + 1))
+                    .replier(user("replier" + i))
+                    .request(first)
+                    .build());
+        }
+        em.flush();
+        em.clear();
+        requestId = first.getId();
+        stats.clear();
+    }
+
+    @Test
+    void feedPage_usesSameStatementCountForAnyPageSize(){
+        Page<ListingDtos.ResponseToRequestDto> small = requestRepo.findAllRequestDtos(PageRequest.of(0, 5, Sort.by("createdAt").descending()));
+        long smallCount = stats.getPrepareStatementCount();
+        em.clear();
+        stats.clear();
+
+        Page<ListingDtos.ResponseToRequestDto> large = requestRepo.findAllRequestDtos(PageRequest.of(0, 25, Sort.by("createdAt").descending()));
+        long largeCount = stats.getPrepareStatementCount();
+
+        assertThat(small.getContent()).hasSize(5);
+        assertThat(large.getContent()).hasSize(25);
+        assertThat(large.getContent().get(0).ownerEmail()).startsWith("owner");
+        //page select + count select, independent of the number of owners
+        assertThat(smallCount).isEqualTo(2);
+        assertThat(largeCount).isEqualTo(2);
+    }
+
+    @Test
+    void repliesOfRequest_loadInOneStatement(){
+        List<ListingDtos.ResponseToReplyDto> replies = replyRepo.findReplyDtosByRequestId(requestId);
+
+        assertThat(replies).hasSize(10);
+        assertThat(replies.get(0).replierEmail()).isEqualTo("replier0@taka.com");
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void repliesSlice_readsOnlyOnePageInOneStatement(){
+        Slice<ListingDtos.ResponseToReplyDto> first = replyRepo.findReplyDtoSliceByRequestId(requestId,
+                PageRequest.of(0, 4, Sort.by(Sort.Direction.DESC, "price").and(Sort.by(Sort.Direction.DESC, "id"))));
+
+        assertThat(first.getContent()).extracting(r -> r.price().intValue()).containsExactly(10, 9, 8, 7);
+        assertThat(first.hasNext()).isTrue();
+        //no count query for a slice
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+
+        Slice<ListingDtos.ResponseToReplyDto> last = replyRepo.findReplyDtoSliceByRequestId(requestId,
+                PageRequest.of(2, 4, Sort.by(Sort.Direction.DESC, "price").and(Sort.by(Sort.Direction.DESC, "id"))));
+        assertThat(last.getContent()).hasSize(2);
+        assertThat(last.hasNext()).isFalse();
+    }
+
+    @Test
+    void replyVersion_isOneAggregateRow_evenWithoutReplies(){
+        ListingDtos.ReplyVersion version = replyRepo.findReplyVersionByRequestId(requestId);
+        ListingDtos.ReplyVersion empty = replyRepo.findReplyVersionByRequestId(-1L);
+
+        assertThat(version.replyCount()).isEqualTo(10);
+        assertThat(version.lastReplyId()).isNotNull();
+        assertThat(version.lastUpdatedAt()).isNotNull();
+        assertThat(empty.replyCount()).isZero();
+        assertThat(empty.lastReplyId()).isNull();
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void repliesOfUser_loadInOneStatement(){
+        List<ListingDtos.ResponseToReplyDto> replies = replyRepo.findReplyDtosByReplierEmail("replier3@taka.com");
+
+        assertThat(replies).hasSize(1);
+        assertThat(replies.get(0).contentStatus()).isEqualTo("ALLOWED");
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void replyStatsOfPage_loadInOneGroupedStatement(){
+        List<Long> pageIds = requestRepo.findAllRequestDtos(PageRequest.of(0, 30)).getContent().stream()
+                .map(ListingDtos.ResponseToRequestDto::id).toList();
+        stats.clear();
+
+        List<ListingDtos.ReplyStats> replyStats = replyRepo.findReplyStatsByRequestIdIn(pageIds);
+
+        //only the first request has replies, the rest are simply absent
+        assertThat(replyStats).hasSize(1);
+        assertThat(replyStats.get(0).requestId()).isEqualTo(requestId);
+        assertThat(replyStats.get(0).replyCount()).isEqualTo(10);
+        assertThat(replyStats.get(0).lowestPrice()).isEqualByComparingTo("1.0");
+        assertThat(replyStats.get(0).highestPrice()).isEqualByComparingTo("10.0");
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private UserProfile user(String name){
+        UserProfile user = UserProfile.builder()
+                .firstName(name)
+                .lastName("Test")
+                .email(name + "@taka.com")
+                .passwordHarsh("hash")
+                .user_role(UserRole.USER)
+                .build();
+        em.persist(user);
+        return user;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.taka.repos;
+
+import com.example.taka.models.OutboxEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class OutboxEventRepositoryTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private OutboxEventRepository outboxRepo;
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private OutboxEvent persist(long requestId, LocalDateTime availableAt){
+        OutboxEvent row = OutboxEvent.builder()
+                .aggregateId(requestId)
+                .eventType("REQUEST_UPDATED")
+                .payload("{\"id\":" + requestId + "}")
+                .createdAt(now.minusMinutes(1))
+                .availableAt(availableAt)
+                .build();
+        em.persist(row);
+        return row;
+    }
+
+    private List<Long> dueIds(int limit){
+        return outboxRepo.findDue(now, PageRequest.of(0, limit)).stream().map(OutboxEvent::getId).toList();
+    }
+
+    @Test
+    void findDue_returnsRowsOldestFirstUpToTheLimit(){
+        OutboxEvent a = persist(1L, now);
+        OutboxEvent b = persist(2L, now.minusSeconds(5));
+        OutboxEvent c = persist(1L, now);
+        em.flush();
+
+        assertThat(dueIds(10)).containsExactly(a.getId(), b.getId(), c.getId());
+        assertThat(dueIds(2)).containsExactly(a.getId(), b.getId());
+    }
+
+    @Test
+    void findDue_holdsBackLaterRowsOfARequestWhoseEarlierRowIsBackingOff(){
+        OutboxEvent failed = persist(1L, now.plusSeconds(30));
+        persist(1L, now);
+        OutboxEvent other = persist(2L, now);
+        em.flush();
+
+        assertThat(dueIds(10)).containsExactly(other.getId());
+    }
+
+    @Test
+    void findDue_skipsParkedRowsWithoutHoldingBackTheRest(){
+        OutboxEvent poison = persist(1L, now.plusSeconds(30));
+        poison.setParkedAt(now.minusSeconds(1));
+        OutboxEvent later = persist(1L, now);
+        em.flush();
+
+        assertThat(dueIds(10)).containsExactly(later.getId());
+    }
+
+    @Test
+    void park_countsTheAttemptAndTakesTheRowOutOfDelivery(){
+        OutboxEvent row = persist(1L, now);
+        em.flush();
+
+        outboxRepo.park(row.getId(), now);
+        em.clear();
+
+        OutboxEvent reloaded = outboxRepo.findById(row.getId()).orElseThrow();
+        assertThat(reloaded.getAttempts()).isEqualTo(1);
+        assertThat(reloaded.getParkedAt()).isEqualTo(now);
+        assertThat(dueIds(10)).isEmpty();
+    }
+
+    @Test
+    void postpone_countsTheAttemptAndMovesAvailableAt(){
+        OutboxEvent row = persist(1L, now);
+        em.flush();
+
+        outboxRepo.postpone(row.getId(), now.plusSeconds(2));
+        em.clear();
+
+        OutboxEvent reloaded = outboxRepo.findById(row.getId()).orElseThrow();
+        assertThat(reloaded.getAttempts()).isEqualTo(1);
+        assertThat(reloaded.getAvailableAt()).isEqualTo(now.plusSeconds(2));
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.taka.repos;
+
+import com.example.taka.dto.ListingDtos;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Runs the reactive SQL against H2 over R2DBC. The schema comes from the real Flyway migrations,
+ * applied through JDBC to the same in-memory database.
+ */
+class ReactiveListingQueriesTest {
+    private static final String DB = "reactive_listing_queries";
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private static ReactiveListingQueries queries;
+
+    @BeforeAll
+    static void setUp() throws Exception{
+        String jdbcUrl = "jdbc:h2:mem:" + DB + ";DB_CLOSE_DELAY=-1";
+        Flyway.configure().dataSource(jdbcUrl, "sa", "").locations("classpath:db/migration/h2").load().migrate();
+
+        try(Connection connection = DriverManager.getConnection(jdbcUrl, "sa", "");
+            Statement st = connection.createStatement()){
+            st.execute("""
+                    insert into user_profile (id, first_name, last_name, email, password_harsh, enabled, created_at, updated_at, user_role)
+                    values (1, 'Ann', 'Owner', 'owner@taka.com', 'x', true, current_timestamp, current_timestamp, 'USER'),
+                           (2, 'Bob', 'Replier', 'replier@taka.com', 'x', true, current_timestamp, current_timestamp, 'USER')
+                    """);
+            //ids 1..5, one minute apart; 4 and 5 share a timestamp to exercise the id tie-break
+            for(int i = 1; i <= 5; i++){
+                LocalDateTime createdAt = i == 5 ? T0.plusMinutes(4) : T0.plusMinutes(i);
+                st.execute("insert into request (id, title, description, owner_id, offer_price, category, location, created_at, updated_at, status, content_status) "
+                        + "values (" + i + ", 'Request " + i + "', 'desc', 1, " + (i * 10) + ", 'bikes', 'Kampala', "
+                        + "timestamp '" + createdAt.toString().replace('T', ' ') + ":00', null, 'OPEN', 'ALLOWED')");
+            }
+            st.execute("""
+                    insert into reply (replier_id, message, price, created_at, content_status, request_id)
+                    values (2, 'first', 12.5, current_timestamp, 'ALLOWED', 3),
+                           (2, 'second', 9.0, current_timestamp, 'HIDDEN', 3)
+                    """);
+        }
+
+        ConnectionFactory connectionFactory = ConnectionFactories.get("r2dbc:h2:mem://sa@/" + DB + "?DB_CLOSE_DELAY=-1");
+        queries = new ReactiveListingQueries(DatabaseClient.create(connectionFactory));
+    }
+
+    @Test
+    void feedIsNewestFirstWithIdTieBreak(){
+        StepVerifier.create(queries.feed(null, null, 0).map(ListingDtos.ResponseToRequestDto::id))
+                .expectNext(5L, 4L, 3L, 2L, 1L)
+                .verifyComplete();
+    }
+
+    @Test
+    void feedSeeksPastTheCursorAndHonoursTheLimit(){
+        //cursor sits on request 5, which shares createdAt with 4
+        StepVerifier.create(queries.feed(T0.plusMinutes(4), 5L, 2).map(ListingDtos.ResponseToRequestDto::id))
+                .expectNext(4L, 3L)
+                .verifyComplete();
+    }
+
+    @Test
+    void feedRowsCarryOwnerAndReplyAggregates(){
+        StepVerifier.create(queries.findRequest(3L))
+                .assertNext(dto -> {
+                    assertThat(dto.title()).isEqualTo("Request 3");
+                    assertThat(dto.ownerEmail()).isEqualTo("owner@taka.com");
+                    assertThat(dto.status()).isEqualTo("OPEN");
+                    assertThat(dto.contentStatus()).isEqualTo("ALLOWED");
+                    assertThat(dto.offerPrice()).isEqualByComparingTo("30");
+                    assertThat(dto.createdAt()).isEqualTo(T0.plusMinutes(3));
+                    assertThat(dto.replyCount()).isEqualTo(2);
+                    assertThat(dto.lowestReplyPrice()).isEqualByComparingTo("9.0");
+                    assertThat(dto.highestReplyPrice()).isEqualByComparingTo("12.5");
+                })
+                .verifyComplete();
+
+        StepVerifier.create(queries.findRequest(1L))
+                .assertNext(dto -> {
+                    assertThat(dto.replyCount()).isZero();
+                    assertThat(dto.lowestReplyPrice()).isNull();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void missingRequestIsEmpty(){
+        StepVerifier.create(queries.findRequest(99L)).verifyComplete();
+        StepVerifier.create(queries.requestExists(99L)).expectNext(false).verifyComplete();
+        StepVerifier.create(queries.requestExists(1L)).expectNext(true).verifyComplete();
+    }
+
+    @Test
+    void repliesInIdOrderWithReplierEmail(){
+        StepVerifier.create(queries.findReplies(3L))
+                .assertNext(reply -> {
+                    assertThat(reply.message()).isEqualTo("first");
+                    assertThat(reply.replierEmail()).isEqualTo("replier@taka.com");
+                    assertThat(reply.price()).isEqualByComparingTo(new BigDecimal("12.5"));
+                })
+                .assertNext(reply -> assertThat(reply.contentStatus()).isEqualTo("HIDDEN"))
+                .verifyComplete();
+    }
+
+    @Test
+    void feedIsPulledOnDemand(){
+        //only as many rows as requested are emitted; cancelling stops the query
+        StepVerifier.create(queries.feed(null, null, 0), 2)
+                .expectNextCount(2)
+                .thenCancel()
+                .verify();
+    }
+}
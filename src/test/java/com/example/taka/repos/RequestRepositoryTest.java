@@ -0,0 +1,146 @@
+package com.example.taka.repos;
+
+import com.example.taka.dto.ListingDtos;
+import com.example.taka.models.Reply;
+import com.example.taka.models.Request;
+import com.example.taka.models.UserProfile;
+import com.example.taka.models.UserRole;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class RequestRepositoryTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private RequestRepository requestRepo;
+
+    private UserProfile owner;
+
+    @BeforeEach
+    void setUp(){
+        owner = UserProfile.builder()
+                .firstName("Feed")
+                .lastName("Owner")
+                .email("feed@taka.com")
+                .passwordHarsh("hash")
+                .user_role(UserRole.USER)
+                .build();
+        em.persist(owner);
+    }
+
+    @Test
+    void feedSeek_walksEveryRowOnceNewestFirst_evenWithEqualTimestamps(){
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 12, 0);
+        //pairs of rows share a timestamp, so only the id tie-breaker keeps pages apart
+        for(int i = 0; i < 20; i++){
+            persistRequest("R" + i, base.plusMinutes(i / 2));
+        }
+        em.flush();
+        em.clear();
+
+        List<ListingDtos.ResponseToRequestDto> walked = new ArrayList<>();
+        List<ListingDtos.ResponseToRequestDto> page = requestRepo.findFeed(PageRequest.of(0, 7));
+        while(!page.isEmpty()){
+            walked.addAll(page);
+            ListingDtos.ResponseToRequestDto last = page.get(page.size() - 1);
+            page = requestRepo.findFeedAfter(last.createdAt(), last.id(), PageRequest.of(0, 7));
+        }
+
+        assertThat(walked).hasSize(20);
+        assertThat(new HashSet<>(walked.stream().map(ListingDtos.ResponseToRequestDto::id).toList())).hasSize(20);
+        for(int i = 1; i < walked.size(); i++){
+            ListingDtos.ResponseToRequestDto prev = walked.get(i - 1), cur = walked.get(i);
+            boolean ordered = prev.createdAt().isAfter(cur.createdAt())
+                    || (prev.createdAt().isEqual(cur.createdAt()) && prev.id() > cur.id());
+            assertThat(ordered).as("row %d must come after row %d", cur.id(), prev.id()).isTrue();
+        }
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    void streamExportRows_returnsEveryRequestInIdOrderWithReplyCounts(){
+        Request first = persistRequest("First", LocalDateTime.now());
+        persistRequest("Second", LocalDateTime.now());
+        for(int i = 0; i < 3; i++){
+            em.persist(Reply.builder()
+                    .message("Offer " + i)
+                    .price(new BigDecimal("5.0"))
+                    .replier(owner)
+                    .request(first)
+                    .build());
+        }
+        em.flush();
+        em.clear();
+
+        List<ListingDtos.RequestExportRow> rows;
+        try(Stream<ListingDtos.RequestExportRow> stream = requestRepo.streamExportRows()){
+            rows = stream.toList();
+        }
+
+        assertThat(rows).extracting(ListingDtos.RequestExportRow::title).containsExactly("First", "Second");
+        assertThat(rows).extracting(ListingDtos.RequestExportRow::replyCount).containsExactly(3L, 0L);
+        assertThat(rows.get(0).ownerEmail()).isEqualTo("feed@taka.com");
+        assertThat(rows.get(0).status()).isEqualTo("OPEN");
+    }
+
+    @Test
+    void filterSpecs_composeOnlySuppliedPredicates(){
+        LocalDateTime now = LocalDateTime.now();
+        persistRequest("Cheap bike", now, "Bikes", "10.0");
+        persistRequest("Dear bike", now.plusMinutes(1), "Bikes", "500.0");
+        persistRequest("Sofa", now.plusMinutes(2), "Furniture", "50.0");
+        em.flush();
+        em.clear();
+
+        Page<Request> bikesUnder100 = requestRepo.findAll(Specification.allOf(
+                RequestSpecs.categoryIs("Bikes"), RequestSpecs.priceAtMost(new BigDecimal("100"))),
+                PageRequest.of(0, 10));
+        Page<Request> any = requestRepo.findAll(Specification.allOf(List.of()), PageRequest.of(0, 10, Sort.by("offerPrice")));
+
+        assertThat(bikesUnder100.getContent()).extracting(Request::getTitle).containsExactly("Cheap bike");
+        //owner comes with the entity graph, usable after the persistence context is gone
+        em.clear();
+        assertThat(bikesUnder100.getContent().get(0).getOwner().getEmail()).isEqualTo("feed@taka.com");
+        assertThat(any.getContent()).extracting(Request::getTitle).containsExactly("Cheap bike", "Sofa", "Dear bike");
+    }
+
+    private Request persistRequest(String title, LocalDateTime createdAt, String category, String price){
+        Request request = persistRequest(title, createdAt);
+        request.setCategory(category);
+        request.setOfferPrice(new BigDecimal(price));
+        return request;
+    }
+
+    private Request persistRequest(String title, LocalDateTime createdAt){
+        Request request = Request.builder()
+                .title(title)
+                .description("Desc")
+                .location("Ottawa")
+                .offerPrice(new BigDecimal("10.0"))
+                .owner(owner)
+                .createdAt(createdAt)
+                .build();
+        em.persist(request);
+        return request;
+    }
+}
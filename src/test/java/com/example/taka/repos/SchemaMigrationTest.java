@@ -0,0 +1,43 @@
+package com.example.taka.repos;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/* a database created by ddl-auto=update (= V1) with data in it gets every later schema change*/
+class SchemaMigrationTest {
+
+    @Test
+    void baselineDatabaseIsUpgradedWithoutIdClashes() throws Exception{
+        String url = "jdbc:h2:mem:migration;DB_CLOSE_DELAY=-1";
+        Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration/h2").target("1").load().migrate();
+
+        try(Connection connection = DriverManager.getConnection(url, "sa", "");
+            Statement sql = connection.createStatement()){
+            sql.execute("insert into user_profile (first_name, last_name, email, password_harsh, enabled, created_at, updated_at, user_role)"
+                    + " values ('Old', 'User', 'old@taka.com', 'x', true, current_timestamp, current_timestamp, 'USER')");
+            sql.execute("insert into request (title, description, owner_id, location, content_status)"
+                    + " values ('Bike', 'old request', 1, 'Kampala', 'ALLOWED')");
+            sql.execute("update request set id = 120");
+
+            Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration/h2").load().migrate();
+
+            assertThat(single(sql, "select token_version from user_profile where email = 'old@taka.com'")).isZero();
+            //Hibernate hands out (first value - 49) .. first value
+            assertThat(single(sql, "select next value for request_seq") - 49).isGreaterThan(120);
+        }
+    }
+
+    private static long single(Statement sql, String query) throws Exception{
+        try(ResultSet rows = sql.executeQuery(query)){
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+}
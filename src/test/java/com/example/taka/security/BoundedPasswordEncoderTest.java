@@ -0,0 +1,100 @@
+package com.example.taka.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown(){
+        encoder.close();
+    }
+
+    @Test
+    void hashesAndChecksOnTheHashingPool(){
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 2, 4, meters);
+
+        String hash = encoder.encode("Secret123");
+
+        assertThat(encoder.matches("Secret123", hash)).isTrue();
+        assertThat(encoder.matches("wrong", hash)).isFalse();
+        assertThat(meters.timer("auth.password.hash", "op", "encode").count()).isEqualTo(1);
+        assertThat(meters.timer("auth.password.hash", "op", "matches").count()).isEqualTo(2);
+    }
+
+    @Test
+    void weakerStoredHashIsUpgraded(){
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(6), 1, 1, meters);
+
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("pw"))).isTrue();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("pw"))).isFalse();
+    }
+
+    @Test
+    void fullQueueIsRejectedWith429(){
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder slow = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword){
+                started.countDown();
+                try{
+                    release.await(5, TimeUnit.SECONDS);
+                }catch(InterruptedException ex){
+                    Thread.currentThread().interrupt();
+                }
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword){
+                return true;
+            }
+        };
+        encoder = new BoundedPasswordEncoder(slow, 1, 1, meters);
+
+        //one hashing, one queued: the pool and queue are full
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        awaitQuietly(started);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while(meters.get("auth.password.hash.queue").gauge().value() < 1){
+            assertThat(System.nanoTime()).as("second call never queued").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> encoder.encode("c"))
+                .isInstanceOfSatisfying(BoundedPasswordEncoder.OverloadedException.class, ex -> {
+                    assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+                    assertThat(ex.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo(BoundedPasswordEncoder.RETRY_AFTER_SECONDS);
+                });
+        assertThat(meters.counter("auth.password.hash.rejected").count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.join()).isEqualTo("hash");
+        assertThat(queued.join()).isEqualTo("hash");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch){
+        try{
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        }catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.taka.security;
 
+import com.example.taka.models.UserProfile;
+import com.example.taka.models.UserRole;
 import io.jsonwebtoken.Claims; // Imports the Claims interface from the JJWT library, used to represent the payload of a JWT.
 import io.jsonwebtoken.JwtException; // Imports JwtException, a common exception thrown by the JJWT library for JWT-related errors.
 import org.junit.jupiter.api.BeforeEach; // Imports BeforeEach annotation from JUnit 5, indicating a method to be run before each test.
@@ -74,4 +76,86 @@ public class JwtUtilTest {
         // Asserts that calling extractAllClaims with a malformed token throws a JwtException.
         assertThrows(JwtException.class, () -> jwtUtil.extractAllClaims(badToken), "bad token must trigger jwtException");
     }
+
+    @Test // verify() should parse once and hand back subject + expiry
+    void verify_returnsSubjectAndExpiry(){
+        String email = "verify@example.com";
+        String token = jwtUtil.generateToken(email);
+
+        VerifiedToken verified = jwtUtil.verify(token);
+
+        assertEquals(email, verified.email(), "subject must match the email");
+        assertFalse(verified.isExpired(), "fresh token must not be expired");
+        assertNotNull(verified.issuedAt(), "issue time is needed to spot tokens from before a restart");
+    }
+
+    @Test // a second verify of the same token is served from the cache
+    void verify_cachesVerifiedTokens(){
+        String token = jwtUtil.generateToken("cached@example.com");
+
+        VerifiedToken first = jwtUtil.verify(token);
+        VerifiedToken second = jwtUtil.verify(token);
+
+        assertSame(first, second, "repeat verification should reuse the cached result");
+    }
+
+    @Test // a token signed with another key must never be accepted
+    void verify_rejectsTokenSignedWithOtherKey(){
+        JwtUtil other = new JwtUtil();
+        ReflectionTestUtils.setField(other, "secretKey", "FEDCBA9876543210FEDCBA9876543210");
+        ReflectionTestUtils.setField(other, "expirationMs", expirationMs);
+        other.init();
+
+        String forged = other.generateToken("attacker@example.com");
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(forged), "foreign signature must be rejected");
+    }
+
+    @Test // cached tokens still stop working once they expire
+    void verify_afterExpiry_throws() throws InterruptedException{
+        String token = jwtUtil.generateToken("expiring@example.com");
+        jwtUtil.verify(token);
+
+        Thread.sleep(expirationMs +50);
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(token), "expired token must not verify");
+    }
+
+    @Test // tokens issued for a user carry role, id, enabled flag & token version
+    void generateTokenForUser_embedsUserClaims(){
+        UserProfile user = UserProfile.builder()
+                .id(7L)
+                .email("claims@example.com")
+                .user_role(UserRole.ADMIN)
+                .enabled(true)
+                .tokenVersion(3)
+                .build();
+
+        VerifiedToken verified = jwtUtil.verify(jwtUtil.generateToken(user));
+
+        assertTrue(verified.hasUserClaims(), "all user claims should be present");
+        assertEquals("claims@example.com", verified.email());
+        assertEquals("ADMIN", verified.role());
+        assertEquals(7L, verified.userId());
+        assertTrue(verified.enabled());
+        assertEquals(3, verified.tokenVersion());
+    }
+
+    @Test // every token gets its own id, so a single token can be revoked
+    void generateToken_givesEachTokenAnId(){
+        UserProfile user = UserProfile.builder().id(7L).email("ids@example.com").user_role(UserRole.USER).build();
+
+        String first = jwtUtil.verify(jwtUtil.generateToken(user)).tokenId();
+        String second = jwtUtil.verify(jwtUtil.generateToken(user)).tokenId();
+
+        assertNotNull(first, "token id (jti) must be set");
+        assertNotEquals(first, second, "token ids must not repeat");
+    }
+
+    @Test // tokens issued from an email only have no user claims, the filter falls back to the DB
+    void generateTokenForEmail_hasNoUserClaims(){
+        VerifiedToken verified = jwtUtil.verify(jwtUtil.generateToken("legacy@example.com"));
+
+        assertFalse(verified.hasUserClaims(), "email-only token must not look stateless-ready");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.example.taka.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+    private RateLimitFilter filter(boolean enabled){
+        return new RateLimitFilter(enabled, "2/1m", "1/1m", "3/1m", 1_000,
+                new StaticListableBeanFactory(Map.of("meters", meters)).getBeanProvider(MeterRegistry.class));
+    }
+
+    @AfterEach
+    void clearContext(){
+        SecurityContextHolder.clearContext();
+    }
+
+    private static MockHttpServletResponse call(RateLimitFilter filter, String method, String path, String ip) throws Exception{
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void loginIsLimitedPerClientAddress() throws Exception{
+        RateLimitFilter filter = filter(true);
+
+        assertThat(call(filter, "POST", "/api/auth/login", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(call(filter, "POST", "/api/auth/register", "10.0.0.1").getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = call(filter, "POST", "/api/auth/login", "10.0.0.1");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        //one token per 30s
+        assertThat(Integer.parseInt(rejected.getHeader(HttpHeaders.RETRY_AFTER))).isBetween(29, 30);
+        assertThat(rejected.getContentAsString()).contains("\"error\"");
+        assertThat(meters.counter("http.ratelimit.rejected", "route", "login").count()).isEqualTo(1);
+
+        assertThat(call(filter, "POST", "/api/auth/login", "10.0.0.2").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void signedInCallersAreLimitedPerUserNotPerAddress() throws Exception{
+        RateLimitFilter filter = filter(true);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("a@taka.com", null, List.of()));
+
+        assertThat(call(filter, "POST", "/api/requests/batch", "10.0.0.1").getStatus()).isEqualTo(200);
+        //same user from another address shares the bucket
+        assertThat(call(filter, "POST", "/api/requests/import", "10.0.0.2").getStatus()).isEqualTo(429);
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("b@taka.com", null, List.of()));
+        assertThat(call(filter, "POST", "/api/requests/batch", "10.0.0.1").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void routesHaveSeparateBucketsAndOtherRequestsAreNotLimited() throws Exception{
+        RateLimitFilter filter = filter(true);
+
+        for(int i = 0; i < 3; i++){
+            assertThat(call(filter, "GET", "/api/requests/search", "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+        assertThat(call(filter, "GET", "/api/requests/nearby", "10.0.0.1").getStatus()).isEqualTo(429);
+        assertThat(call(filter, "POST", "/api/auth/login", "10.0.0.1").getStatus()).isEqualTo(200);
+        for(int i = 0; i < 10; i++){
+            assertThat(call(filter, "GET", "/api/requests/1", "10.0.0.1").getStatus()).isEqualTo(200);
+            assertThat(call(filter, "POST", "/api/requests/search", "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    void disabledFilterLetsEverythingThrough() throws Exception{
+        RateLimitFilter filter = filter(false);
+
+        for(int i = 0; i < 5; i++){
+            assertThat(call(filter, "POST", "/api/auth/login", "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+    }
+}
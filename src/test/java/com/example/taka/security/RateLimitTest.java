@@ -0,0 +1,86 @@
+package com.example.taka.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimitTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void burstOfCapacityThenOneTokenPerInterval(){
+        RateLimit limit = new RateLimit(3, Duration.ofSeconds(3));
+        AtomicLong bucket = RateLimit.newBucket();
+        long now = 1_000 * SECOND;
+
+        assertThat(limit.tryAcquire(bucket, now)).isZero();
+        assertThat(limit.tryAcquire(bucket, now)).isZero();
+        assertThat(limit.tryAcquire(bucket, now)).isZero();
+        assertThat(limit.tryAcquire(bucket, now)).isEqualTo(SECOND);
+        //a rejected call takes nothing
+        assertThat(limit.tryAcquire(bucket, now + SECOND / 2)).isEqualTo(SECOND / 2);
+
+        assertThat(limit.tryAcquire(bucket, now + SECOND)).isZero();
+        assertThat(limit.tryAcquire(bucket, now + SECOND)).isPositive();
+    }
+
+    @Test
+    void idleBucketRefillsOnlyUpToCapacity(){
+        RateLimit limit = new RateLimit(2, Duration.ofSeconds(2));
+        AtomicLong bucket = RateLimit.newBucket();
+
+        limit.tryAcquire(bucket, 0);
+        long later = 3_600 * SECOND;
+        assertThat(limit.tryAcquire(bucket, later)).isZero();
+        assertThat(limit.tryAcquire(bucket, later)).isZero();
+        assertThat(limit.tryAcquire(bucket, later)).isPositive();
+    }
+
+    @Test
+    void concurrentCallersNeverGetMoreThanCapacity() throws Exception{
+        RateLimit limit = new RateLimit(100, Duration.ofHours(1));
+        AtomicLong bucket = RateLimit.newBucket();
+        long now = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try{
+            List<Future<Integer>> granted = new ArrayList<>();
+            for(int t = 0; t < 8; t++){
+                granted.add(pool.submit(() -> {
+                    int n = 0;
+                    for(int i = 0; i < 1_000; i++){
+                        if(limit.tryAcquire(bucket, now) == 0){
+                            n++;
+                        }
+                    }
+                    return n;
+                }));
+            }
+            int total = 0;
+            for(Future<Integer> f : granted){
+                total += f.get();
+            }
+            assertThat(total).isEqualTo(100);
+        }finally{
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void parsesCallsPerPeriod(){
+        assertThat(RateLimit.parse("10/1m")).isEqualTo(new RateLimit(10, Duration.ofMinutes(1)));
+        assertThat(RateLimit.parse(" 300 / 30s ")).isEqualTo(new RateLimit(300, Duration.ofSeconds(30)));
+        assertThatThrownBy(() -> RateLimit.parse("10")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RateLimit.parse("0/1m")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.taka.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevokedTokenRegistryTest {
+
+    private final RevokedTokenRegistry registry = new RevokedTokenRegistry(new SimpleMeterRegistry());
+
+    @Test
+    void revokedTokenIsRejectedOthersAreNot(){
+        registry.revoke("jti-1", Instant.now().plusSeconds(60));
+
+        assertThat(registry.isRevoked("jti-1")).isTrue();
+        assertThat(registry.isRevoked("jti-2")).isFalse();
+        assertThat(registry.isRevoked(null)).isFalse();
+    }
+
+    @Test
+    void alreadyExpiredTokenIsNotKept(){
+        registry.revoke("jti-1", Instant.now().minusSeconds(1));
+
+        assertThat(registry.size()).isZero();
+    }
+
+    @Test
+    void sweepDropsEntriesOnceTheirTokenExpired() throws InterruptedException{
+        registry.revoke("short", Instant.now().plusMillis(30));
+        registry.revoke("long", Instant.now().plusSeconds(60));
+
+        Thread.sleep(50);
+        registry.sweep();
+
+        assertThat(registry.size()).isEqualTo(1);
+        assertThat(registry.isRevoked("long")).isTrue();
+    }
+}
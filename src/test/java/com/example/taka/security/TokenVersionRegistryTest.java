@@ -0,0 +1,70 @@
+package com.example.taka.security;
+
+import com.example.taka.models.UserProfile;
+import com.example.taka.repos.UserProfileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TokenVersionRegistryTest {
+
+    private UserProfileRepository userProfileRepo;
+    private TokenVersionRegistry registry;
+    private final Instant beforeStartup = Instant.now().minusSeconds(60);
+
+    @BeforeEach
+    void setUp(){
+        userProfileRepo = mock(UserProfileRepository.class);
+        when(userProfileRepo.findByTokenVersionGreaterThan(0)).thenReturn(List.of());
+        registry = new TokenVersionRegistry(userProfileRepo);
+        registry.load();
+    }
+
+    @Test
+    void tokenIssuedSinceStartup_isCheckedInMemoryOnly(){
+        assertThat(registry.isCurrent(1L, 0, Instant.now().plusSeconds(1))).isTrue();
+
+        registry.revokeAll(1L);
+
+        assertThat(registry.isCurrent(1L, 0, Instant.now().plusSeconds(1))).isFalse();
+        verify(userProfileRepo, never()).findById(any());
+    }
+
+    @Test
+    void tokenFromBeforeARestart_ofADeletedUser_isRejected(){
+        when(userProfileRepo.findById(7L)).thenReturn(Optional.empty());
+
+        assertThat(registry.isCurrent(7L, 0, beforeStartup)).isFalse();
+        assertThat(registry.isCurrent(7L, 0, null)).isFalse();
+        //remembered after the first lookup
+        verify(userProfileRepo, times(1)).findById(7L);
+    }
+
+    @Test
+    void tokenFromBeforeARestart_ofAnExistingUser_isAcceptedAtTheStoredVersion(){
+        UserProfile user = UserProfile.builder().id(8L).tokenVersion(0).build();
+        when(userProfileRepo.findById(8L)).thenReturn(Optional.of(user));
+
+        assertThat(registry.isCurrent(8L, 0, beforeStartup)).isTrue();
+        assertThat(registry.isCurrent(8L, 0, beforeStartup)).isTrue();
+        verify(userProfileRepo, times(1)).findById(8L);
+    }
+
+    @Test
+    void bumpRejectsOlderVersions(){
+        UserProfile user = UserProfile.builder().id(9L).tokenVersion(0).build();
+
+        registry.bump(user);
+
+        assertThat(registry.isCurrent(9L, 0, beforeStartup)).isFalse();
+        assertThat(registry.isCurrent(9L, 1, beforeStartup)).isTrue();
+        verify(userProfileRepo, never()).findById(any());
+    }
+}
@@ -8,12 +8,18 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class CustomUserDetailsServiceTest {
@@ -21,6 +27,9 @@ class CustomUserDetailsServiceTest {
     @Mock
     private UserProfileRepository repo;
 
+    @Mock
+    private UserProfileCache userCache;
+
     @InjectMocks
     private CustomUserDetailsService svc;
 
@@ -63,4 +72,42 @@ class CustomUserDetailsServiceTest {
                 "should throw when user not found"
         );
     }
+
+    @Test
+    void loginWithWeakerStoredHashRehashesThePassword() {
+        UserProfile up = new UserProfile();
+        up.setEmail("x@e.com");
+        up.setPasswordHarsh(new BCryptPasswordEncoder(4).encode("pwd"));
+        up.setUser_role(UserRole.USER);
+        when(repo.findByEmail("x@e.com")).thenReturn(Optional.of(up));
+
+        //the same wiring Spring Security applies to the UserDetailsService / UserDetailsPasswordService bean
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(svc);
+        provider.setPasswordEncoder(new BCryptPasswordEncoder(5));
+        provider.setUserDetailsPasswordService(svc);
+        provider.authenticate(new UsernamePasswordAuthenticationToken("x@e.com", "pwd"));
+
+        assertTrue(up.getPasswordHarsh().startsWith("$2a$05$"), "stored hash should be at the configured strength");
+        assertTrue(new BCryptPasswordEncoder(5).matches("pwd", up.getPasswordHarsh()));
+        verify(repo).save(up);
+        verify(userCache).evict(up);
+    }
+
+    @Test
+    void loginWithCurrentStrengthKeepsTheHash() {
+        UserProfile up = new UserProfile();
+        up.setEmail("x@e.com");
+        String hash = new BCryptPasswordEncoder(5).encode("pwd");
+        up.setPasswordHarsh(hash);
+        up.setUser_role(UserRole.USER);
+        when(repo.findByEmail("x@e.com")).thenReturn(Optional.of(up));
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(svc);
+        provider.setPasswordEncoder(new BCryptPasswordEncoder(5));
+        provider.setUserDetailsPasswordService(svc);
+        provider.authenticate(new UsernamePasswordAuthenticationToken("x@e.com", "pwd"));
+
+        assertEquals(hash, up.getPasswordHarsh());
+        verify(repo, never()).save(any());
+    }
 }
@@ -0,0 +1,200 @@
+package com.example.taka.services;
+
+import com.example.taka.dto.ListingDtos;
+import com.example.taka.models.UserProfile;
+import com.example.taka.repos.RequestRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ListingBulkServiceTest {
+
+    //same setup as the Boot-managed mapper (java.time support, ISO dates)
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private ListingService listingService;
+    private RequestRepository requestRepo;
+    private ListingBulkService bulkService;
+    private final UserProfile owner = new UserProfile();
+
+    @BeforeEach
+    void setUp(){
+        listingService = mock(ListingService.class);
+        requestRepo = mock(RequestRepository.class);
+        bulkService = new ListingBulkService(listingService, requestRepo,
+                Validation.buildDefaultValidatorFactory().getValidator(), objectMapper);
+        ReflectionTestUtils.setField(bulkService, "chunkSize", 2);
+
+        //hand out increasing ids for every saved row
+        AtomicLong ids = new AtomicLong();
+        when(listingService.saveRequestsBatch(anyList(), any())).thenAnswer(inv -> {
+            List<ListingDtos.CreateRequestDto> dtos = inv.getArgument(0);
+            return dtos.stream().map(d -> new ListingDtos.ResponseToRequestDto(ids.incrementAndGet(), d.title(),
+                    null, null, null, null, null, null, null, "OPEN", "ALLOWED", "admin@taka.com")).toList();
+        });
+    }
+
+    @Test
+    void importRequests_writesOneResultPerLineInOrder_andSavesInChunks() throws Exception{
+        String ndjson = String.join("\n",
+                line("Bike"),
+                "{not json",
+                "",
+                line("Sofa"),
+                "{\"title\":\"\",\"description\":\"d\",\"offerPrice\":1.0,\"location\":\"Ottawa\"}",
+                line("Desk"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ListingDtos.ImportSummary summary = bulkService.importRequests(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), out, owner);
+
+        List<JsonNode> results = out.toString(StandardCharsets.UTF_8).lines().map(this::parse).toList();
+
+        assertThat(summary).isEqualTo(new ListingDtos.ImportSummary(5, 3, 2));
+        assertThat(results).hasSize(6);
+        assertThat(results.get(0).get("status").asText()).isEqualTo("CREATED");
+        assertThat(results.get(1).get("status").asText()).isEqualTo("INVALID");
+        //blank line 3 is skipped, numbering follows the input
+        assertThat(results.get(2).get("line").asLong()).isEqualTo(4);
+        assertThat(results.get(3).get("errors").has("title")).isTrue();
+        assertThat(results.get(4).get("id").asLong()).isEqualTo(3);
+        assertThat(results.get(5).get("created").asLong()).isEqualTo(3);
+        //chunks of two lines: [Bike, bad], [Sofa, invalid], [Desk]
+        verify(listingService, times(3)).saveRequestsBatch(anyList(), eq(owner));
+    }
+
+    @Test
+    void importRequests_nullAndOverlongLinesAreInvalid_andImportContinues() throws Exception{
+        ReflectionTestUtils.setField(bulkService, "maxLineLength", 200);
+        String ndjson = String.join("\r\n",
+                "null",
+                "{\"title\":\"" + "x".repeat(500) + "\"}",
+                line("Bike"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ListingDtos.ImportSummary summary = bulkService.importRequests(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), out, owner);
+
+        List<JsonNode> results = out.toString(StandardCharsets.UTF_8).lines().map(this::parse).toList();
+        assertThat(summary).isEqualTo(new ListingDtos.ImportSummary(3, 1, 2));
+        assertThat(results.get(0).get("status").asText()).isEqualTo("INVALID");
+        assertThat(results.get(0).get("errors").get("line").asText()).isEqualTo("expected a JSON object");
+        assertThat(results.get(1).get("errors").get("line").asText()).isEqualTo("longer than 200 bytes");
+        //the rest of the long line is skipped, not read as further lines
+        assertThat(results.get(2).get("line").asLong()).isEqualTo(3);
+        assertThat(results.get(2).get("status").asText()).isEqualTo("CREATED");
+    }
+
+    @Test
+    void importRequests_linesSpanningReadBuffers_keepTheirMultiByteCharacters() throws Exception{
+        ReflectionTestUtils.setField(bulkService, "chunkSize", 500);
+        StringBuilder ndjson = new StringBuilder();
+        for(int i = 0; i < 400; i++){
+            //~100 bytes a line, so lines straddle the 8K read buffer
+            ndjson.append(line("Café crème " + i)).append('\n');
+        }
+        List<String> titles = new ArrayList<>();
+        when(listingService.saveRequestsBatch(anyList(), any())).thenAnswer(inv -> {
+            List<ListingDtos.CreateRequestDto> dtos = inv.getArgument(0);
+            dtos.forEach(d -> titles.add(d.title()));
+            return dtos.stream().map(d -> new ListingDtos.ResponseToRequestDto(1L, d.title(),
+                    null, null, null, null, null, null, null, "OPEN", "ALLOWED", "admin@taka.com")).toList();
+        });
+
+        ListingDtos.ImportSummary summary = bulkService.importRequests(
+                new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)), new ByteArrayOutputStream(), owner);
+
+        assertThat(summary).isEqualTo(new ListingDtos.ImportSummary(400, 400, 0));
+        assertThat(titles).hasSize(400).allMatch(t -> t.startsWith("Café crème "));
+        assertThat(titles.get(399)).isEqualTo("Café crème 399");
+    }
+
+    @Test
+    void importRequests_failedChunkIsReportedAndImportContinues() throws Exception{
+        when(listingService.saveRequestsBatch(anyList(), any()))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(List.of(new ListingDtos.ResponseToRequestDto(9L, "Desk",
+                        null, null, null, null, null, null, null, "OPEN", "ALLOWED", "admin@taka.com")));
+
+        String ndjson = String.join("\n", line("Bike"), line("Sofa"), line("Desk"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ListingDtos.ImportSummary summary = bulkService.importRequests(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), out, owner);
+
+        List<JsonNode> results = out.toString(StandardCharsets.UTF_8).lines().map(this::parse).toList();
+        assertThat(summary).isEqualTo(new ListingDtos.ImportSummary(3, 1, 2));
+        assertThat(results.get(0).get("status").asText()).isEqualTo("FAILED");
+        assertThat(results.get(2).get("id").asLong()).isEqualTo(9);
+    }
+
+    @Test
+    void exportRequests_csvQuotesFieldsThatNeedIt() throws Exception{
+        LocalDateTime created = LocalDateTime.of(2025, 3, 1, 9, 30);
+        when(requestRepo.streamExportRows()).thenReturn(Stream.of(
+                exportRow(1L, "Bike", "red, \"fast\"", 2L, created),
+                exportRow(2L, "Sofa", null, 0L, created)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = bulkService.exportRequests(ListingBulkService.ExportFormat.CSV, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(rows).isEqualTo(2);
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).startsWith("id,title,description,");
+        assertThat(lines.get(1)).isEqualTo("1,Bike,\"red, \"\"fast\"\"\",,10.0,Misc,Ottawa,2025-03-01T09:30,2025-03-01T09:30,OPEN,ALLOWED,owner@taka.com,2");
+        assertThat(lines.get(2)).startsWith("2,Sofa,,,");
+    }
+
+    @Test
+    void exportRequests_ndjsonWritesOneObjectPerRow_andClosesTheStream() throws Exception{
+        AtomicBoolean closed = new AtomicBoolean();
+        LocalDateTime created = LocalDateTime.of(2025, 3, 1, 9, 30);
+        when(requestRepo.streamExportRows()).thenReturn(Stream.of(exportRow(7L, "Desk", "oak", 4L, created))
+                .onClose(() -> closed.set(true)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bulkService.exportRequests(ListingBulkService.ExportFormat.NDJSON, out);
+
+        List<JsonNode> lines = out.toString(StandardCharsets.UTF_8).lines().map(this::parse).toList();
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0).get("id").asLong()).isEqualTo(7);
+        assertThat(lines.get(0).get("replyCount").asLong()).isEqualTo(4);
+        assertThat(closed).isTrue();
+    }
+
+    private static ListingDtos.RequestExportRow exportRow(Long id, String title, String description, long replies, LocalDateTime at){
+        return new ListingDtos.RequestExportRow(id, title, description, null, new BigDecimal("10.0"), "Misc", "Ottawa",
+                at, at, "OPEN", "ALLOWED", "owner@taka.com", replies);
+    }
+
+    private static String line(String title){
+        return "{\"title\":\"" + title + "\",\"description\":\"desc\",\"offerPrice\":10.0,\"category\":\"Misc\",\"location\":\"Ottawa\"}";
+    }
+
+    private JsonNode parse(String json){
+        try{
+            return objectMapper.readTree(json);
+        }catch(Exception e){
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,24 +1,36 @@
 package com.example.taka.services;
 
 import com.example.taka.dto.ListingDtos;
+import com.example.taka.models.ContentStatus;
+import com.example.taka.models.Reply;
 import com.example.taka.models.Request;
 import com.example.taka.models.RequestStatus;
 import com.example.taka.models.UserProfile;
 import com.example.taka.repos.ReplyRepository;
 import com.example.taka.repos.RequestRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 public class ListingServiceTest {
@@ -33,6 +45,27 @@ public class ListingServiceTest {
     @Mock
     private UserProfileService userService;
 
+    @Mock
+    private RequestSearchIndex searchIndex;
+
+    @Mock
+    private RequestGeoIndex geoIndex;
+
+    @Mock
+    private RequestDetailCache detailCache;
+
+    @Mock
+    private ListingVersions listingVersions;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ListingOutbox outbox;
+
     // ——— Create an instance of ListingService with those mocks injected ——
     @InjectMocks
     private ListingService listingService;
@@ -81,7 +114,7 @@ public class ListingServiceTest {
 
     /**
      * Tests the `findAllRequests` method of the ListingService.
-     * Verifies that the `findAll` method of the `RequestRepository` is called
+     * Verifies that the owner-joining projection query of the `RequestRepository` is used
      * and that a `Page` of `ResponseToRequestDto` is returned.
      */
     @Test
@@ -89,28 +122,136 @@ public class ListingServiceTest {
         //a Pageable object for pagination and sorting.
         Pageable pageable = PageRequest.of(0,5, Sort.by("createdAt").descending());
 
-        // Create a fully-populated Request so toRequestDto() won't NPE
-        UserProfile owner = new UserProfile();
-        owner.setEmail("owner@example.com");
-
-        // Create a sample Request object to be returned by the mock repository.
-        Request sample = new Request();
-        sample.setId(1L);
-        sample.setTitle("T1");
-        sample.setOwner(owner);
+        // Create a sample DTO the projection query would return (owner email already joined in)
+        ListingDtos.ResponseToRequestDto sample = new ListingDtos.ResponseToRequestDto(
+                1L, "T1", null, null, null, null, null, null, null,
+                RequestStatus.OPEN.name(), "ALLOWED", "owner@example.com");
 
         //simulate the page data returned by the repository.
-        Page<Request> dummyPage = new PageImpl<>(List.of(sample), pageable, 1);
+        Page<ListingDtos.ResponseToRequestDto> dummyPage = new PageImpl<>(List.of(sample), pageable, 1);
 
-        // Configure the mock requestRepo to return the dummyPage when findAll is called with the specified pageable.
-        when(requestRepo.findAll(pageable)).thenReturn(dummyPage);
+        // Configure the mock requestRepo to return the dummyPage for the projection query.
+        when(requestRepo.findAllRequestDtos(pageable)).thenReturn(dummyPage);
 
         Page<ListingDtos.ResponseToRequestDto> result = listingService.findAllRequests(pageable);
 
         assertThat(result.getTotalElements()).isEqualTo(1);
 
-        // Verify that the findAll method of the requestRepo was called exactly once with the given pageable.
-        verify(requestRepo, times(1)).findAll(pageable);
+        // Verify that the projection query was called exactly once and entities were never loaded.
+        verify(requestRepo, times(1)).findAllRequestDtos(pageable);
+        verify(requestRepo, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void whenFindAll_thenReplyStatsMergedFromOneAggregateQuery(){
+        Pageable pageable = PageRequest.of(0, 5);
+        LocalDateTime now = LocalDateTime.now();
+        when(requestRepo.findAllRequestDtos(pageable))
+                .thenReturn(new PageImpl<>(List.of(feedRow(1L, now), feedRow(2L, now)), pageable, 2));
+        when(replyRepo.findReplyStatsByRequestIdIn(List.of(1L, 2L))).thenReturn(List.of(
+                new ListingDtos.ReplyStats(2L, 3, new BigDecimal("4.0"), new BigDecimal("9.5"))));
+
+        List<ListingDtos.ResponseToRequestDto> rows = listingService.findAllRequests(pageable).getContent();
+
+        //request 1 has no replies
+        assertThat(rows.get(0).replyCount()).isEqualTo(0);
+        assertThat(rows.get(0).lowestReplyPrice()).isNull();
+        assertThat(rows.get(1).replyCount()).isEqualTo(3);
+        assertThat(rows.get(1).lowestReplyPrice()).isEqualTo(new BigDecimal("4.0"));
+        assertThat(rows.get(1).highestReplyPrice()).isEqualTo(new BigDecimal("9.5"));
+        verify(replyRepo, times(1)).findReplyStatsByRequestIdIn(any());
+    }
+
+    @Test
+    void whenModerateRequest_thenStatusSavedAndDetailEvicted(){
+        Request existing = new Request();
+        existing.setId(3L);
+        when(requestRepo.findById(3L)).thenReturn(Optional.of(existing));
+        when(requestRepo.save(any(Request.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Request moderated = listingService.moderateRequest(3L, ContentStatus.HIDDEN);
+
+        assertThat(moderated.getContentStatus()).isEqualTo(ContentStatus.HIDDEN);
+        verify(detailCache).evict(3L);
+        verify(outbox).record(ListingEvent.Type.REQUEST_MODERATED, 3L, Map.of("id", 3L, "contentStatus", "HIDDEN"));
+    }
+
+    @Test
+    void whenRequestSavedOrDeleted_thenChangeRecordedInOutbox(){
+        UserProfile owner = new UserProfile();
+        owner.setEmail("owner@taka.com");
+        Request request = Request.builder().id(6L).title("Bike").owner(owner).build();
+        when(requestRepo.save(request)).thenReturn(request);
+        when(requestRepo.existsById(6L)).thenReturn(true);
+
+        listingService.saveRequest(request);
+        listingService.deleteRequest(6L);
+
+        ArgumentCaptor<Object> created = ArgumentCaptor.forClass(Object.class);
+        verify(outbox).record(eq(ListingEvent.Type.REQUEST_CREATED), eq(6L), created.capture());
+        assertThat(created.getValue()).isInstanceOfSatisfying(ListingDtos.ResponseToRequestDto.class,
+                dto -> assertThat(dto.ownerEmail()).isEqualTo("owner@taka.com"));
+        verify(outbox).record(ListingEvent.Type.REQUEST_DELETED, 6L, Map.of("id", 6L));
+        verify(listingVersions).remove(6L);
+        verify(listingVersions, never()).touch(6L);
+        //no transaction in a plain unit test, so the indexes are updated right away
+        verify(searchIndex).index(request);
+        verify(geoIndex).remove(6L);
+    }
+
+    @Test
+    void whenReplySavedOrDeleted_thenParentDetailEvicted(){
+        Request parent = new Request();
+        parent.setId(4L);
+        UserProfile replier = new UserProfile();
+        replier.setEmail("r@taka.com");
+        Reply reply = Reply.builder().id(8L).request(parent).replier(replier).build();
+        when(replyRepo.save(reply)).thenReturn(reply);
+        when(replyRepo.findById(8L)).thenReturn(Optional.of(reply));
+        when(userService.findByEmail("r@taka.com")).thenReturn(replier);
+
+        listingService.saveReply(reply);
+        listingService.deleteReply(8L, "r@taka.com");
+
+        verify(detailCache, times(2)).evict(4L);
+        verify(listingVersions, times(2)).touch(4L);
+    }
+
+    @Test
+    void whenNewReplySaved_thenReplyCreatedEventPublished(){
+        Request parent = new Request();
+        parent.setId(4L);
+        UserProfile replier = new UserProfile();
+        replier.setEmail("r@taka.com");
+        Reply reply = Reply.builder().request(parent).replier(replier).message("mine").price(new BigDecimal("9.5")).build();
+        when(replyRepo.save(reply)).thenAnswer(inv -> {
+            reply.setId(11L);
+            return reply;
+        });
+
+        listingService.saveReply(reply);
+
+        verify(outbox).record(eq(ListingEvent.Type.REPLY_CREATED), eq(4L), any(ListingDtos.ResponseToReplyDto.class));
+        ArgumentCaptor<ReplyCreatedEvent> event = ArgumentCaptor.forClass(ReplyCreatedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().requestId()).isEqualTo(4L);
+        assertThat(event.getValue().reply().id()).isEqualTo(11L);
+        assertThat(event.getValue().reply().replierEmail()).isEqualTo("r@taka.com");
+    }
+
+    @Test
+    void whenExistingReplySaved_thenNoReplyCreatedEvent(){
+        Request parent = new Request();
+        parent.setId(4L);
+        UserProfile replier = new UserProfile();
+        replier.setEmail("r@taka.com");
+        Reply reply = Reply.builder().id(8L).request(parent).replier(replier).build();
+        when(replyRepo.save(reply)).thenReturn(reply);
+
+        listingService.saveReply(reply);
+
+        verify(eventPublisher, never()).publishEvent(any());
+        verify(outbox).record(eq(ListingEvent.Type.REPLY_UPDATED), eq(4L), any(ListingDtos.ResponseToReplyDto.class));
     }
 
     @Test
@@ -122,6 +263,9 @@ public class ListingServiceTest {
         existing.setId(id);
         existing.setTitle("Old Title");
         existing.setDescription("Old Desc");
+        UserProfile owner = new UserProfile();
+        owner.setEmail("owner@taka.com");
+        existing.setOwner(owner);
 
         //mock requestRepo to return an Optional containing the existing request
         when(requestRepo.findById(id)).thenReturn(Optional.of(existing));
@@ -156,4 +300,191 @@ public class ListingServiceTest {
         // Verify that the save method of the requestRepo was called with any Request object.
         verify(requestRepo, times(1)).save(any(Request.class));
     }
+
+    @Test
+    void whenFeedHasMoreRows_thenNextCursorContinuesAfterLastItem(){
+        LocalDateTime t = LocalDateTime.of(2025, 1, 1, 12, 0);
+        List<ListingDtos.ResponseToRequestDto> rows = List.of(feedRow(3L, t), feedRow(2L, t), feedRow(1L, t.minusHours(1)));
+        //asks for limit + 1 rows to detect a next page
+        when(requestRepo.findFeed(PageRequest.of(0, 3))).thenReturn(rows);
+
+        ListingDtos.CursorPage<ListingDtos.ResponseToRequestDto> first = listingService.findRequestFeed(null, 2);
+
+        assertThat(first.items().size()).isEqualTo(2);
+        assertThat(first.nextCursor()).isNotNull();
+
+        when(requestRepo.findFeedAfter(t, 2L, PageRequest.of(0, 3))).thenReturn(List.of(feedRow(1L, t.minusHours(1))));
+
+        ListingDtos.CursorPage<ListingDtos.ResponseToRequestDto> second = listingService.findRequestFeed(first.nextCursor(), 2);
+
+        assertThat(second.items().size()).isEqualTo(1);
+        assertThat(second.nextCursor()).isNull();
+        verify(requestRepo, never()).count();
+    }
+
+    @Test
+    void whenFeedCursorIsGarbage_thenBadRequest(){
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> listingService.findRequestFeed("not-a-cursor", 20));
+
+        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void whenRepliesPageSortedByUnknownField_thenBadRequest(){
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> listingService.getRepliesPage(1L, PageRequest.of(0, 20, Sort.by("message"))));
+
+        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(replyRepo);
+    }
+
+    @Test
+    void whenRepliesPage_thenSizeCappedAndIdTieBreakerAdded(){
+        when(replyRepo.findReplyDtoSliceByRequestId(eq(1L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(new ListingDtos.ResponseToReplyDto(
+                        5L, "m", null, new BigDecimal("3.0"), null, "r@taka.com", "ALLOWED"))));
+
+        listingService.getRepliesPage(1L, PageRequest.of(0, 5000, Sort.by(Sort.Direction.DESC, "price")));
+
+        verify(replyRepo).findReplyDtoSliceByRequestId(1L, PageRequest.of(0, ListingService.MAX_REPLY_PAGE_SIZE,
+                Sort.by(Sort.Direction.DESC, "price", "id")));
+        //rows came back, so the request exists: no extra existence query
+        verify(requestRepo, never()).existsById(any());
+    }
+
+    @Test
+    void whenRepliesPageOfMissingRequest_thenNotFound(){
+        when(replyRepo.findReplyDtoSliceByRequestId(eq(9L), any(Pageable.class))).thenReturn(new SliceImpl<>(List.of()));
+        when(requestRepo.existsById(9L)).thenReturn(false);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> listingService.getRepliesPage(9L, Pageable.unpaged()));
+
+        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void whenRepliesOfMissingRequest_thenValidatorsNotFound(){
+        when(replyRepo.findReplyVersionByRequestId(9L)).thenReturn(new ListingDtos.ReplyVersion(0, null, null));
+        when(requestRepo.existsById(9L)).thenReturn(false);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> listingService.repliesValidators(9L));
+
+        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void whenReplyDeleted_thenRepliesEtagChanges(){
+        LocalDateTime at = LocalDateTime.of(2025, 1, 1, 12, 0);
+        when(replyRepo.findReplyVersionByRequestId(1L))
+                .thenReturn(new ListingDtos.ReplyVersion(3, 12L, at))
+                .thenReturn(new ListingDtos.ReplyVersion(2, 12L, at));
+
+        String before = listingService.repliesValidators(1L).etag();
+        String after = listingService.repliesValidators(1L).etag();
+
+        assertThat(after).isNotEqualTo(before);
+    }
+
+    @Test
+    void whenFilterMinPriceAboveMax_thenBadRequest(){
+        var filter = new ListingDtos.RequestFilter(null, null, new BigDecimal("20"), new BigDecimal("10"), null);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> listingService.filterRequests(filter, PageRequest.of(0, 20)));
+
+        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(requestRepo);
+    }
+
+    @Test
+    void whenFilterSortedByUnknownField_thenBadRequest(){
+        var filter = new ListingDtos.RequestFilter("Bikes", null, null, null, null);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> listingService.filterRequests(filter, PageRequest.of(0, 20, Sort.by("description"))));
+
+        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenFilter_thenNewestFirstAndPageSizeCapped(){
+        UserProfile owner = new UserProfile();
+        owner.setEmail("owner@example.com");
+        Request row = Request.builder().id(1L).title("Bike").owner(owner).build();
+        when(requestRepo.findAll(any(Specification.class), any(Pageable.class)))
+                .thenAnswer(inv -> new PageImpl<>(List.of(row), inv.getArgument(1), 1));
+
+        var filter = new ListingDtos.RequestFilter("Bikes", " Ottawa ", null, new BigDecimal("100"), RequestStatus.OPEN);
+        Page<ListingDtos.ResponseToRequestDto> result = listingService.filterRequests(filter, PageRequest.of(0, 5000));
+
+        assertThat(result.getContent().get(0).ownerEmail()).isEqualTo("owner@example.com");
+        verify(requestRepo).findAll(any(Specification.class),
+                eq(PageRequest.of(0, ListingService.MAX_FEED_PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt"))));
+    }
+
+    @Test
+    void whenWithinBoxTooWide_thenBadRequest(){
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> listingService.findWithin(-80, -179, 80, 179, 20));
+        //crossing the antimeridian the span wraps: 170 -> -170 is 20 degrees wide
+        ResponseStatusException wrapped = assertThrows(ResponseStatusException.class,
+                () -> listingService.findWithin(-18, 170, -17, -170, 20));
+
+        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(wrapped.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(geoIndex);
+    }
+
+    @Test
+    void whenNearbyRadiusOutOfRange_thenBadRequest(){
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> listingService.findNearby(45.4, -75.7, 5000, 20));
+
+        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(geoIndex);
+    }
+
+    @Test
+    void whenNearby_thenRowsKeepDistanceOrder(){
+        when(geoIndex.nearby(45.4, -75.7, 10, 20)).thenReturn(List.of(
+                new RequestGeoIndex.Hit(2L, 45.41, -75.7, 1.1),
+                new RequestGeoIndex.Hit(1L, 45.45, -75.7, 5.6)));
+        LocalDateTime now = LocalDateTime.now();
+        //the IN query returns rows in id order
+        when(requestRepo.findRequestDtosByIdIn(List.of(2L, 1L))).thenReturn(List.of(feedRow(1L, now), feedRow(2L, now)));
+
+        List<ListingDtos.NearbyRequestDto> nearby = listingService.findNearby(45.4, -75.7, 10, 20);
+
+        assertThat(nearby.stream().map(n -> n.request().id()).toList()).isEqualTo(List.of(2L, 1L));
+        assertThat(nearby.get(0).distanceKm()).isEqualTo(1.1);
+    }
+
+    private static ListingDtos.ResponseToRequestDto feedRow(Long id, LocalDateTime createdAt){
+        return new ListingDtos.ResponseToRequestDto(id, "T" + id, null, null, null, null, null,
+                createdAt, createdAt, RequestStatus.OPEN.name(), "ALLOWED", "owner@example.com");
+    }
+
+    @Test
+    void whenSaveRequestsBatch_thenPersistedAndFlushedInChunks(){
+        UserProfile owner = new UserProfile();
+        owner.setEmail("admin@taka.com");
+        var dto = new ListingDtos.CreateRequestDto("Bulk", "Bulk listing", null, new BigDecimal("5.0"), "Misc", "Ottawa");
+        List<ListingDtos.CreateRequestDto> dtos = java.util.Collections.nCopies(120, dto);
+
+        List<ListingDtos.ResponseToRequestDto> result = listingService.saveRequestsBatch(dtos, owner);
+
+        assertThat(result.size()).isEqualTo(120);
+        verify(entityManager, times(120)).persist(any(Request.class));
+        //after rows 50 and 100, plus the final partial chunk
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(3)).clear();
+        verify(requestRepo, never()).save(any(Request.class));
+        //no transaction in a plain unit test, so the index is updated right away
+        verify(searchIndex, times(120)).index(any(Request.class));
+        verify(outbox, times(120)).record(eq(ListingEvent.Type.REQUEST_CREATED), any(), any(ListingDtos.ResponseToRequestDto.class));
+    }
 }
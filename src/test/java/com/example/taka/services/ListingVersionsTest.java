@@ -0,0 +1,71 @@
+package com.example.taka.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ListingVersionsTest {
+
+    private final ListingVersions versions = new ListingVersions(100);
+
+    @Test
+    void etag_isQuotedAndStableForSameParts(){
+        String tag = ListingVersions.etag("request", 1L, LocalDateTime.of(2025, 1, 1, 12, 0));
+
+        assertThat(tag).startsWith("\"").endsWith("\"");
+        assertThat(ListingVersions.etag("request", 1L, LocalDateTime.of(2025, 1, 1, 12, 0))).isEqualTo(tag);
+        assertThat(ListingVersions.etag("request", 1L, LocalDateTime.of(2025, 1, 1, 12, 1))).isNotEqualTo(tag);
+    }
+
+    @Test
+    void lastModified_neverBeforeStartup_andMovesOnTouch() throws Exception{
+        Instant beforeTouch = versions.lastModified(1L, LocalDateTime.of(2000, 1, 1, 0, 0));
+        //old rows still report the startup time, a change before the restart may not be in the row
+        assertThat(beforeTouch).isAfter(Instant.parse("2020-01-01T00:00:00Z"));
+
+        Thread.sleep(5);
+        versions.touch(1L);
+
+        assertThat(versions.lastModified(1L)).isAfter(beforeTouch);
+        assertThat(versions.lastModified(2L)).isEqualTo(beforeTouch);
+    }
+
+    @Test
+    void lastModified_neverMovesBackWhenStampsAreEvicted() throws Exception{
+        ListingVersions small = new ListingVersions(2);
+        Instant startup = small.lastModified(99L);
+        Map<Long, Instant> stamped = new HashMap<>();
+        for(long id = 1; id <= 20; id++){
+            Thread.sleep(2);
+            small.touch(id);
+            stamped.put(id, small.lastModified(id));
+        }
+
+        //most stamps are evicted by now; each id still reports at least what it reported when touched
+        stamped.forEach((id, stamp) -> assertThat(small.lastModified(id)).isAfterOrEqualTo(stamp));
+        assertThat(small.lastModified(99L)).isAfter(startup);
+    }
+
+    @Test
+    void remove_dropsTheStampOfADeletedRequest() throws Exception{
+        Instant untouched = versions.lastModified(2L);
+        Thread.sleep(5);
+        versions.touch(1L);
+
+        versions.remove(1L);
+
+        assertThat(versions.lastModified(1L)).isEqualTo(untouched);
+    }
+
+    @Test
+    void lastModified_usesNewerRowTimestamp(){
+        LocalDateTime future = LocalDateTime.now().plusDays(1);
+
+        assertThat(versions.lastModified(1L, null, future)).isAfter(Instant.now());
+    }
+}
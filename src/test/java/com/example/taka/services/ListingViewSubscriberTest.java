@@ -0,0 +1,78 @@
+package com.example.taka.services;
+
+import com.example.taka.models.Request;
+import com.example.taka.repos.RequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ListingViewSubscriberTest {
+
+    private RequestRepository requestRepo;
+    private RequestSearchIndex searchIndex;
+    private RequestGeoIndex geoIndex;
+    private RequestDetailCache detailCache;
+    private ListingViewSubscriber subscriber;
+
+    @BeforeEach
+    void setUp(){
+        requestRepo = mock(RequestRepository.class);
+        searchIndex = mock(RequestSearchIndex.class);
+        geoIndex = mock(RequestGeoIndex.class);
+        detailCache = mock(RequestDetailCache.class);
+        subscriber = new ListingViewSubscriber(requestRepo, searchIndex, geoIndex, detailCache);
+    }
+
+    @Test
+    void createdOrUpdated_reindexesTheCurrentRow(){
+        Request current = Request.builder().id(5L).title("Bike, updated").latitude(45.4).longitude(-75.7).build();
+        when(requestRepo.findById(5L)).thenReturn(Optional.of(current));
+
+        subscriber.onListingEvent(event(ListingEvent.Type.REQUEST_UPDATED, 5L));
+
+        verify(searchIndex).index(current);
+        verify(geoIndex).index(current);
+        verify(detailCache).evict(5L);
+    }
+
+    @Test
+    void eventForARequestDeletedSince_removesIt(){
+        when(requestRepo.findById(5L)).thenReturn(Optional.empty());
+
+        subscriber.onListingEvent(event(ListingEvent.Type.REQUEST_CREATED, 5L));
+
+        verify(searchIndex).remove(5L);
+        verify(geoIndex).remove(5L);
+        verify(searchIndex, never()).index(any(Request.class));
+    }
+
+    @Test
+    void deleted_removesWithoutReadingTheRow(){
+        subscriber.onListingEvent(event(ListingEvent.Type.REQUEST_DELETED, 5L));
+
+        verify(searchIndex).remove(5L);
+        verify(geoIndex).remove(5L);
+        verifyNoInteractions(requestRepo);
+    }
+
+    @Test
+    void replyChange_onlyEvictsTheParentDetail(){
+        subscriber.onListingEvent(event(ListingEvent.Type.REPLY_CREATED, 5L));
+
+        verify(detailCache).evict(5L);
+        verifyNoInteractions(requestRepo, searchIndex, geoIndex);
+    }
+
+    private static ListingEvent event(ListingEvent.Type type, Long requestId){
+        return new ListingEvent(1L, type, requestId, "{}", LocalDateTime.now());
+    }
+}
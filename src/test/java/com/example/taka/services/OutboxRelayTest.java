@@ -0,0 +1,124 @@
+package com.example.taka.services;
+
+import com.example.taka.models.OutboxEvent;
+import com.example.taka.repos.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private OutboxEventRepository outboxRepo;
+    private SimpleMeterRegistry meters;
+    //what the subscriber saw, in order
+    private final List<Long> received = new ArrayList<>();
+    //outbox ids the subscriber throws on
+    private final List<Long> failing = new ArrayList<>();
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp(){
+        outboxRepo = mock(OutboxEventRepository.class);
+        meters = new SimpleMeterRegistry();
+        ListingEventSubscriber subscriber = event -> {
+            if(failing.contains(event.id())){
+                throw new IllegalStateException("view unavailable");
+            }
+            received.add(event.id());
+        };
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("subscriber", subscriber);
+        relay = new OutboxRelay(outboxRepo, beans.getBeanProvider(ListingEventSubscriber.class), 3, Duration.ofMinutes(5), 5, meters);
+    }
+
+    private static OutboxEvent row(long id, long requestId, int attempts){
+        return OutboxEvent.builder().id(id).aggregateId(requestId).eventType("REQUEST_UPDATED")
+                .payload("{}").createdAt(LocalDateTime.now()).attempts(attempts).build();
+    }
+
+    @Test
+    void deliversInOutboxOrderThenDeletesDelivered(){
+        when(outboxRepo.findDue(any(), any(Pageable.class))).thenReturn(List.of(row(1, 10, 0), row(2, 11, 0)));
+
+        assertThat(relay.relayBatch()).isEqualTo(2);
+
+        assertThat(received).containsExactly(1L, 2L);
+        verify(outboxRepo).deleteAllByIdInBatch(List.of(1L, 2L));
+        assertThat(meters.counter("outbox.events.delivered").count()).isEqualTo(2);
+    }
+
+    @Test
+    void failureHoldsBackLaterEventsOfThatRequestOnly(){
+        failing.add(1L);
+        when(outboxRepo.findDue(any(), any(Pageable.class))).thenReturn(List.of(row(1, 10, 2), row(2, 11, 0), row(3, 10, 0)));
+
+        relay.relayBatch();
+
+        //3 belongs to the same request as the failed 1, so it must not overtake it
+        assertThat(received).containsExactly(2L);
+        verify(outboxRepo).deleteAllByIdInBatch(List.of(2L));
+        verify(outboxRepo).postpone(eq(1L), any(LocalDateTime.class));
+        verify(outboxRepo, never()).postpone(eq(3L), any());
+        assertThat(meters.counter("outbox.events.failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void lastFailedAttemptParksTheEventAndLetsItsRequestMoveOn(){
+        failing.add(1L);
+        when(outboxRepo.findDue(any(), any(Pageable.class))).thenReturn(List.of(row(1, 10, 4), row(2, 10, 0)));
+
+        relay.relayBatch();
+
+        verify(outboxRepo).park(eq(1L), any(LocalDateTime.class));
+        verify(outboxRepo, never()).postpone(eq(1L), any());
+        assertThat(received).containsExactly(2L);
+        verify(outboxRepo).deleteAllByIdInBatch(List.of(2L));
+        assertThat(meters.counter("outbox.events.parked").count()).isEqualTo(1);
+        assertThat(meters.counter("outbox.events.failed").count()).isZero();
+    }
+
+    @Test
+    void unknownEventTypeIsRetriedNotFatal(){
+        OutboxEvent unknown = row(1, 10, 0);
+        unknown.setEventType("SOMETHING_NEW");
+        when(outboxRepo.findDue(any(), any(Pageable.class))).thenReturn(List.of(unknown, row(2, 11, 0)));
+
+        relay.relayBatch();
+
+        assertThat(received).containsExactly(2L);
+        verify(outboxRepo).postpone(eq(1L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void relayKeepsDrainingWhileBatchesAreFull(){
+        when(outboxRepo.findDue(any(), any(Pageable.class)))
+                .thenReturn(List.of(row(1, 10, 0), row(2, 10, 0), row(3, 10, 0)))
+                .thenReturn(List.of(row(4, 10, 0)));
+
+        relay.relay();
+
+        assertThat(received).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void retryDelayDoublesUpToTheCap(){
+        assertThat(relay.retryDelay(0)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(relay.retryDelay(3)).isEqualTo(Duration.ofSeconds(8));
+        assertThat(relay.retryDelay(50)).isEqualTo(Duration.ofMinutes(5));
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.taka.services;
+
+import com.example.taka.dto.ListingDtos;
+import com.example.taka.dto.ListingDtos.ResponseToRequestDto;
+import com.example.taka.repos.ReactiveListingQueries;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveListingServiceTest {
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Mock
+    private ReactiveListingQueries queries;
+
+    @InjectMocks
+    private ReactiveListingService service;
+
+    private static ResponseToRequestDto dto(long id){
+        return new ResponseToRequestDto(id, "t", "d", null, BigDecimal.TEN, null, "Kampala",
+                T0.plusMinutes(id), null, "OPEN", "ALLOWED", "o@taka.com");
+    }
+
+    @Test
+    void feedPageFetchesOneExtraRowAndReturnsACursorTheBlockingFeedUnderstands(){
+        when(queries.feed(null, null, 3)).thenReturn(Flux.just(dto(5), dto(4), dto(3)));
+
+        StepVerifier.create(service.feedPage(null, 2))
+                .assertNext(page -> {
+                    assertThat(page.items()).extracting(ResponseToRequestDto::id).containsExactly(5L, 4L);
+                    ListingService.FeedPosition next = ListingService.decodeCursor(page.nextCursor());
+                    assertThat(next).isEqualTo(new ListingService.FeedPosition(T0.plusMinutes(4), 4L));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void lastPageHasNoCursorAndSizeIsCapped(){
+        when(queries.feed(null, null, ReactiveListingService.MAX_PAGE_SIZE + 1)).thenReturn(Flux.just(dto(1)));
+
+        StepVerifier.create(service.feedPage(null, 10_000))
+                .assertNext(page -> assertThat(page.nextCursor()).isNull())
+                .verifyComplete();
+    }
+
+    @Test
+    void feedContinuesFromTheCursor(){
+        String cursor = ListingService.encodeCursor(T0, 7L);
+        when(queries.feed(T0, 7L, 50)).thenReturn(Flux.just(dto(6)));
+
+        StepVerifier.create(service.feed(cursor, 50)).expectNextCount(1).verifyComplete();
+    }
+
+    @Test
+    void streamNeedsAPositiveLimitAndIsCapped(){
+        StepVerifier.create(service.feed(null, 0))
+                .expectErrorSatisfies(ex -> assertThat(((ResponseStatusException) ex).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST))
+                .verify();
+
+        when(queries.feed(null, null, ReactiveListingService.MAX_STREAM_SIZE)).thenReturn(Flux.just(dto(1)));
+        StepVerifier.create(service.feed(null, Integer.MAX_VALUE)).expectNextCount(1).verifyComplete();
+    }
+
+    @Test
+    void badCursorIs400(){
+        StepVerifier.create(service.feed("not-a-cursor", 20))
+                .expectErrorSatisfies(ex -> assertThat(((ResponseStatusException) ex).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST))
+                .verify();
+    }
+
+    @Test
+    void missingRequestIs404(){
+        when(queries.findRequest(9L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.getRequest(9L))
+                .expectErrorSatisfies(ex -> assertThat(((ResponseStatusException) ex).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND))
+                .verify();
+    }
+
+    @Test
+    void noRepliesIsEmptyForAnExistingRequestAnd404Otherwise(){
+        when(queries.findReplies(1L)).thenReturn(Flux.empty());
+        when(queries.requestExists(1L)).thenReturn(Mono.just(true));
+        when(queries.findReplies(9L)).thenReturn(Flux.empty());
+        when(queries.requestExists(9L)).thenReturn(Mono.just(false));
+
+        StepVerifier.create(service.getReplies(1L)).verifyComplete();
+        StepVerifier.create(service.getReplies(9L)).expectError(ResponseStatusException.class).verify();
+    }
+
+    @Test
+    void existenceIsNotCheckedWhenThereAreReplies(){
+        when(queries.findReplies(1L)).thenReturn(Flux.just(
+                new ListingDtos.ResponseToReplyDto(1L, "m", null, BigDecimal.ONE, T0, "r@taka.com", "ALLOWED")));
+
+        StepVerifier.create(service.getReplies(1L)).expectNextCount(1).verifyComplete();
+        verify(queries, never()).requestExists(1L);
+    }
+}
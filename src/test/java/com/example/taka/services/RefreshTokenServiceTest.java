@@ -0,0 +1,130 @@
+package com.example.taka.services;
+
+import com.example.taka.models.RefreshToken;
+import com.example.taka.models.UserProfile;
+import com.example.taka.models.UserRole;
+import com.example.taka.repos.RefreshTokenRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//rotation against the real schema: the conditional revoke and family queries are the point
+@DataJpaTest
+@Import(RefreshTokenService.class)
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService service;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepo;
+
+    @Autowired
+    private EntityManager em;
+
+    private UserProfile user;
+
+    @BeforeEach
+    void setUp(){
+        user = UserProfile.builder()
+                .firstName("Token")
+                .lastName("Owner")
+                .email("token@taka.com")
+                .passwordHarsh("hash")
+                .user_role(UserRole.USER)
+                .build();
+        em.persist(user);
+    }
+
+    private RefreshToken stored(String rawToken){
+        em.flush();
+        em.clear();
+        return refreshTokenRepo.findByTokenHash(RefreshTokenService.hash(rawToken)).orElseThrow();
+    }
+
+    private static void assertUnauthorized(Runnable call){
+        assertThatThrownBy(call::run).isInstanceOfSatisfying(ResponseStatusException.class,
+                ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED));
+    }
+
+    @Test
+    void issuedTokenIsStoredOnlyAsItsHash(){
+        String raw = service.issue(user);
+
+        RefreshToken row = stored(raw);
+        assertThat(row.getTokenHash()).hasSize(64).isNotEqualTo(raw);
+        assertThat(row.getUserId()).isEqualTo(user.getId());
+        assertThat(row.getExpiresAt()).isAfter(LocalDateTime.now().plusDays(29));
+    }
+
+    @Test
+    void rotationReplacesTheTokenWithinItsFamily(){
+        String first = service.issue(user);
+
+        RefreshTokenService.Rotation rotation = service.rotate(first);
+
+        assertThat(rotation.user().getId()).isEqualTo(user.getId());
+        assertThat(rotation.refreshToken()).isNotEqualTo(first);
+        assertThat(stored(first).getRevokedAt()).isNotNull();
+        RefreshToken next = stored(rotation.refreshToken());
+        assertThat(next.getRevokedAt()).isNull();
+        assertThat(next.getFamilyId()).isEqualTo(stored(first).getFamilyId());
+    }
+
+    @Test
+    void reusingARotatedTokenRevokesTheWholeFamily(){
+        String first = service.issue(user);
+        String second = service.rotate(first).refreshToken();
+        String otherLogin = service.issue(user);
+
+        assertUnauthorized(() -> service.rotate(first));
+
+        //the thief's copy and the legitimate successor are both dead, other logins are not
+        assertThat(stored(second).getRevokedAt()).isNotNull();
+        assertUnauthorized(() -> service.rotate(second));
+        assertThat(service.rotate(otherLogin).refreshToken()).isNotBlank();
+    }
+
+    @Test
+    void bumpedTokenVersionRetiresRefreshTokens(){
+        String raw = service.issue(user);
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        em.merge(user);
+
+        assertUnauthorized(() -> service.rotate(raw));
+    }
+
+    @Test
+    void unknownAndExpiredTokensAreRejected(){
+        assertUnauthorized(() -> service.rotate("never-issued"));
+
+        String raw = service.issue(user);
+        RefreshToken row = stored(raw);
+        row.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        refreshTokenRepo.save(row);
+        assertUnauthorized(() -> service.rotate(raw));
+    }
+
+    @Test
+    void logoutRevokesTheFamilyAndSweepDeletesExpiredRows(){
+        String raw = service.issue(user);
+        service.revoke(raw);
+        assertUnauthorized(() -> service.rotate(raw));
+
+        RefreshToken row = stored(raw);
+        row.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        refreshTokenRepo.save(row);
+        service.deleteExpired();
+        assertThat(refreshTokenRepo.count()).isZero();
+    }
+}
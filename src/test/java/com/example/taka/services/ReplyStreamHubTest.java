@@ -0,0 +1,232 @@
+package com.example.taka.services;
+
+import com.example.taka.dto.ListingDtos;
+import com.example.taka.repos.ReplyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplyStreamHubTest {
+
+    /* records what the hub sends instead of writing to a response*/
+    static class RecordingEmitter extends SseEmitter {
+        final List<Object> sent = new CopyOnWriteArrayList<>();
+        volatile boolean completed;
+        volatile boolean failing;
+        //when set, every send waits for it: a client that is not reading
+        volatile CountDownLatch stalled;
+        volatile boolean stuck;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException{
+            if(failing){
+                throw new IOException("broken pipe");
+            }
+            if(stalled != null){
+                stuck = true;
+                try{
+                    stalled.await();
+                }catch(InterruptedException ex){
+                    Thread.currentThread().interrupt();
+                }
+            }
+            for(var part : builder.build()){
+                sent.add(part.getData());
+            }
+        }
+
+        @Override
+        public synchronized void complete(){
+            completed = true;
+        }
+
+        List<Long> replyIds(){
+            return sent.stream().filter(ListingDtos.ResponseToReplyDto.class::isInstance)
+                    .map(d -> ((ListingDtos.ResponseToReplyDto) d).id()).toList();
+        }
+
+        boolean sentText(String text){
+            return sent.stream().anyMatch(d -> d instanceof String s && s.contains(text));
+        }
+    }
+
+    private ReplyRepository replyRepo;
+    private SimpleMeterRegistry meters;
+    //drains run on the publishing thread unless a test needs them concurrent
+    private TaskExecutor drainExecutor = Runnable::run;
+    private ReplyStreamHub hub;
+
+    @BeforeEach
+    void setUp(){
+        replyRepo = mock(ReplyRepository.class);
+        meters = new SimpleMeterRegistry();
+        hub = new ReplyStreamHub(replyRepo, task -> drainExecutor.execute(task), 4, 3, Duration.ofMinutes(1), meters){
+            @Override
+            SseEmitter newEmitter(long timeoutMillis){
+                return new RecordingEmitter();
+            }
+        };
+    }
+
+    private static ListingDtos.ResponseToReplyDto reply(long id){
+        return new ListingDtos.ResponseToReplyDto(id, "offer " + id, null, new BigDecimal("10.0"), LocalDateTime.now(), "r@taka.com", "ALLOWED");
+    }
+
+    private RecordingEmitter subscribe(Long requestId, Long lastEventId){
+        return (RecordingEmitter) hub.subscribe(requestId, lastEventId);
+    }
+
+    @Test
+    void newReplyGoesOnlyToWatchersOfThatRequest(){
+        RecordingEmitter watcher = subscribe(1L, null);
+        RecordingEmitter other = subscribe(2L, null);
+
+        hub.onReplyCreated(new ReplyCreatedEvent(1L, reply(10)));
+
+        assertThat(watcher.replyIds()).containsExactly(10L);
+        assertThat(watcher.sentText("id:10")).isTrue();
+        assertThat(watcher.sentText("event:reply")).isTrue();
+        assertThat(other.replyIds()).isEmpty();
+    }
+
+    @Test
+    void reconnectReplaysMissedRepliesThenLiveOnesWithoutDuplicates(){
+        when(replyRepo.findReplyDtosByRequestIdAfter(eq(1L), eq(5L), any(Pageable.class)))
+                .thenReturn(List.of(reply(6), reply(7)));
+
+        RecordingEmitter watcher = subscribe(1L, 5L);
+        //7 was also published live while the backlog was read
+        hub.onReplyCreated(new ReplyCreatedEvent(1L, reply(7)));
+        hub.onReplyCreated(new ReplyCreatedEvent(1L, reply(8)));
+
+        assertThat(watcher.replyIds()).containsExactly(6L, 7L, 8L);
+    }
+
+    @Test
+    void repliesCommittedOutOfIdOrderAreAllDelivered(){
+        when(replyRepo.findReplyDtosByRequestIdAfter(eq(1L), eq(5L), any(Pageable.class)))
+                .thenReturn(List.of(reply(6)));
+
+        RecordingEmitter watcher = subscribe(1L, 5L);
+        RecordingEmitter live = subscribe(1L, null);
+        //identity 11 committed before 10
+        hub.onReplyCreated(new ReplyCreatedEvent(1L, reply(11)));
+        hub.onReplyCreated(new ReplyCreatedEvent(1L, reply(10)));
+        hub.onReplyCreated(new ReplyCreatedEvent(1L, reply(6)));
+
+        assertThat(watcher.replyIds()).containsExactly(6L, 11L, 10L);
+        assertThat(live.replyIds()).containsExactly(11L, 10L, 6L);
+    }
+
+    @Test
+    void tooLargeBacklogAsksTheClientToResync(){
+        List<ListingDtos.ResponseToReplyDto> many = LongStream.rangeClosed(1, ReplyStreamHub.REPLAY_LIMIT + 1).mapToObj(ReplyStreamHubTest::reply).toList();
+        when(replyRepo.findReplyDtosByRequestIdAfter(eq(1L), eq(0L), any(Pageable.class))).thenReturn(many);
+
+        RecordingEmitter watcher = subscribe(1L, 0L);
+
+        assertThat(watcher.replyIds()).isEmpty();
+        assertThat(watcher.sentText("event:" + ReplyStreamHub.RESYNC_EVENT)).isTrue();
+    }
+
+    @Test
+    void slowConsumerIsDisconnectedOthersKeepReceiving() throws Exception{
+        ExecutorService pool = Executors.newCachedThreadPool();
+        drainExecutor = pool::execute;
+        try{
+            RecordingEmitter fast = subscribe(1L, null);
+            RecordingEmitter slow = subscribe(1L, null);
+            CountDownLatch stalled = new CountDownLatch(1);
+            slow.stalled = stalled;
+
+            //fast keeps up with every reply; slow is stuck sending the first, 4 more fill its buffer, the 6th overflows it
+            for(long id = 1; id <= 6; id++){
+                hub.onReplyCreated(new ReplyCreatedEvent(1L, reply(id)));
+                int received = (int) id;
+                awaitTrue(() -> fast.replyIds().size() == received);
+                if(id == 1){
+                    awaitTrue(() -> slow.stuck);
+                }
+            }
+
+            assertThat(slow.completed).isTrue();
+            assertThat(fast.completed).isFalse();
+            assertThat(hub.subscriberCount()).isEqualTo(1);
+            assertThat(meters.counter("sse.replies.slow.disconnects").count()).isEqualTo(1);
+            assertThat(fast.replyIds()).containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+
+            //the stalled send finishes, nothing queued for the closed stream goes out after it
+            stalled.countDown();
+            awaitTrue(() -> slow.replyIds().size() == 1);
+            Thread.sleep(50);
+            assertThat(slow.replyIds()).containsExactly(1L);
+        }finally{
+            pool.shutdownNow();
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException{
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while(!condition.getAsBoolean()){
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void brokenConnectionIsRemoved(){
+        RecordingEmitter watcher = subscribe(1L, null);
+        watcher.failing = true;
+
+        hub.onReplyCreated(new ReplyCreatedEvent(1L, reply(1)));
+
+        assertThat(hub.subscriberCount()).isZero();
+        hub.onReplyCreated(new ReplyCreatedEvent(1L, reply(2)));
+        assertThat(watcher.sent).isEmpty();
+    }
+
+    @Test
+    void heartbeatIsAComment(){
+        RecordingEmitter watcher = subscribe(1L, null);
+
+        hub.heartbeat();
+        hub.heartbeat();
+
+        assertThat(watcher.sent).filteredOn(d -> d instanceof String s && s.contains(":keepalive")).hasSize(2);
+    }
+
+    @Test
+    void subscribersAreCapped(){
+        subscribe(1L, null);
+        subscribe(1L, null);
+        subscribe(2L, null);
+
+        assertThatThrownBy(() -> hub.subscribe(3L, null))
+                .isInstanceOfSatisfying(ResponseStatusException.class, ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(hub.subscriberCount()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.taka.services;
+
+import com.example.taka.dto.ListingDtos;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestDetailCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestDetailCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp(){
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new RequestDetailCache(100, Duration.ofMinutes(5), meterRegistry);
+    }
+
+    @Test
+    void get_loadsOnceThenServesFromCache_untilEvicted(){
+        assertThat(cache.get(1L, this::load).title()).isEqualTo("T1");
+        assertThat(cache.get(1L, this::load).title()).isEqualTo("T1");
+        assertThat(loads.get()).isEqualTo(1);
+
+        cache.evict(1L);
+        cache.get(1L, this::load);
+        assertThat(loads.get()).isEqualTo(2);
+
+        //hit ratio can be derived from the published counters
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "requests.detail").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "requests.detail").tag("result", "miss").functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void get_doesNotCacheLoaderFailures(){
+        assertThatThrownBy(() -> cache.get(2L, id -> {
+            loads.incrementAndGet();
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Request not found: " + id);
+        })).isInstanceOf(ResponseStatusException.class);
+
+        assertThat(cache.get(2L, this::load).id()).isEqualTo(2L);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void get_concurrentMissesLoadOnce_otherIdsAreNotHeldUp() throws Exception{
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try{
+            Future<ListingDtos.ResponseToRequestDto> first = pool.submit(() -> cache.get(1L, id -> {
+                loading.countDown();
+                await(release);
+                return load(id);
+            }));
+            loading.await();
+            Future<ListingDtos.ResponseToRequestDto> second = pool.submit(() -> cache.get(1L, this::load));
+
+            //another id loads while 1 is still in flight
+            assertThat(cache.get(3L, this::load).id()).isEqualTo(3L);
+            assertThat(second.isDone()).isFalse();
+
+            release.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS).title()).isEqualTo("T1");
+            assertThat(second.get(5, TimeUnit.SECONDS).title()).isEqualTo("T1");
+            assertThat(loads.get()).isEqualTo(2);
+        }finally{
+            pool.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch){
+        try{
+            latch.await();
+        }catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ListingDtos.ResponseToRequestDto load(Long id){
+        loads.incrementAndGet();
+        return new ListingDtos.ResponseToRequestDto(id, "T" + id, null, null, null, null, null,
+                null, null, "OPEN", "ALLOWED", "owner@taka.com");
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.taka.services;
+
+import com.example.taka.dto.ListingDtos;
+import com.example.taka.repos.RequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+
+class RequestGeoIndexTest {
+
+    private RequestGeoIndex index;
+
+    @BeforeEach
+    void setUp(){
+        index = new RequestGeoIndex(mock(RequestRepository.class));
+        index.index(new ListingDtos.GeoPoint(1L, 45.4215, -75.6972));   //Ottawa
+        index.index(new ListingDtos.GeoPoint(2L, 45.5019, -73.5674));   //Montreal
+        index.index(new ListingDtos.GeoPoint(3L, 43.6532, -79.3832));   //Toronto
+        index.index(new ListingDtos.GeoPoint(4L, 45.3876, -75.6960));   //Ottawa south, ~4 km away
+        index.index(new ListingDtos.GeoPoint(5L, null, null));          //no coordinates
+    }
+
+    @Test
+    void nearby_returnsOnlyPointsInRadius_nearestFirst(){
+        List<RequestGeoIndex.Hit> hits = index.nearby(45.4215, -75.6972, 10, 10);
+
+        assertThat(hits).extracting(RequestGeoIndex.Hit::id).containsExactly(1L, 4L);
+        assertThat(hits.get(0).distanceKm()).isEqualTo(0.0);
+        assertThat(hits.get(1).distanceKm()).isCloseTo(3.8, within(0.2));
+        //Ottawa -> Montreal is ~166 km
+        assertThat(index.nearby(45.4215, -75.6972, 200, 10)).extracting(RequestGeoIndex.Hit::id).containsExactly(1L, 4L, 2L);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void reindexMovesAPoint_andRemoveDropsIt(){
+        index.index(new ListingDtos.GeoPoint(4L, 43.65, -79.38));
+        assertThat(index.nearby(45.4215, -75.6972, 10, 10)).extracting(RequestGeoIndex.Hit::id).containsExactly(1L);
+
+        index.remove(1L);
+        index.index(new ListingDtos.GeoPoint(3L, null, null));
+        assertThat(index.nearby(45.4215, -75.6972, 10, 10)).isEmpty();
+        assertThat(index.nearby(43.6532, -79.3832, 10, 10)).extracting(RequestGeoIndex.Hit::id).containsExactly(4L);
+    }
+
+    @Test
+    void within_handlesBoxesAcrossTheAntimeridian(){
+        index.index(new ListingDtos.GeoPoint(10L, -17.7, 179.9));   //Fiji, east of the line
+        index.index(new ListingDtos.GeoPoint(11L, -17.7, -179.9));  //just west of it
+
+        List<RequestGeoIndex.Hit> box = index.within(-18, 179.5, -17, -179.5, 10);
+        List<RequestGeoIndex.Hit> radius = index.nearby(-17.7, 179.95, 50, 10);
+
+        assertThat(box).extracting(RequestGeoIndex.Hit::id).containsExactlyInAnyOrder(10L, 11L);
+        assertThat(radius).extracting(RequestGeoIndex.Hit::id).containsExactlyInAnyOrder(10L, 11L);
+    }
+
+    //a box with more cells than the index walks the index cells, the answer stays the same
+    @Test
+    void within_wideBoxOverASparseIndex_matchesBruteForce(){
+        RequestGeoIndex sparse = new RequestGeoIndex(mock(RequestRepository.class));
+        Random random = new Random(7);
+        List<double[]> points = new ArrayList<>();
+        for(int i = 0; i < 2_000; i++){
+            double lat = random.nextDouble() * 40 - 20;
+            double lon = random.nextDouble() * 360 - 180;
+            points.add(new double[]{lat, lon});
+            sparse.index(new ListingDtos.GeoPoint((long) i, lat, lon));
+        }
+
+        //{minLat, minLon, maxLat, maxLon}: a few cells, tens of thousands of cells, across the antimeridian
+        double[][] boxes = {{0, 10, 0.3, 10.3}, {-10, -20, 10, 20}, {-10, 175, 10, -175}};
+        for(double[] b : boxes){
+            List<Long> expected = new ArrayList<>();
+            for(int i = 0; i < points.size(); i++){
+                double lat = points.get(i)[0], lon = points.get(i)[1];
+                boolean inLon = b[1] <= b[3] ? lon >= b[1] && lon <= b[3] : lon >= b[1] || lon <= b[3];
+                if(lat >= b[0] && lat <= b[2] && inLon){
+                    expected.add((long) i);
+                }
+            }
+
+            assertThat(sparse.within(b[0], b[1], b[2], b[3], 1000)).extracting(RequestGeoIndex.Hit::id)
+                    .as("box %s", java.util.Arrays.toString(b))
+                    .containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    //grid answers must equal a brute-force scan, including near the poles and the antimeridian
+    @Test
+    void nearby_matchesBruteForce(){
+        RequestGeoIndex big = new RequestGeoIndex(mock(RequestRepository.class));
+        Random random = new Random(42);
+        List<double[]> points = new ArrayList<>();
+        for(int i = 0; i < 200_000; i++){
+            //half clustered around Ottawa, half anywhere on the globe
+            double lat = i % 2 == 0 ? 45.4 + random.nextGaussian() : Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+            double lon = i % 2 == 0 ? -75.7 + random.nextGaussian() : random.nextDouble() * 360 - 180;
+            points.add(new double[]{lat, lon});
+            big.index(new ListingDtos.GeoPoint((long) i, lat, lon));
+        }
+
+        double[][] queries = {{45.4, -75.7, 5}, {45.4, -75.7, 50}, {89.95, 10, 300}, {-10, 179.99, 400}, {0, 0, 500}};
+        for(double[] q : queries){
+            List<Long> expected = new ArrayList<>();
+            List<double[]> inRadius = new ArrayList<>();
+            for(int i = 0; i < points.size(); i++){
+                double d = RequestGeoIndex.distanceKm(q[0], q[1], points.get(i)[0], points.get(i)[1]);
+                if(d <= q[2]){
+                    inRadius.add(new double[]{i, d});
+                }
+            }
+            inRadius.sort(Comparator.<double[]>comparingDouble(a -> a[1]).thenComparingDouble(a -> a[0]));
+            inRadius.stream().limit(100).forEach(a -> expected.add((long) a[0]));
+
+            assertThat(big.nearby(q[0], q[1], q[2], 100)).extracting(RequestGeoIndex.Hit::id)
+                    .as("query %s", java.util.Arrays.toString(q))
+                    .containsExactlyElementsOf(expected);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.taka.services;
+
+import com.example.taka.dto.ListingDtos;
+import com.example.taka.repos.RequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RequestSearchIndexTest {
+
+    private RequestRepository requestRepo;
+    private RequestSearchIndex index;
+
+    @BeforeEach
+    void setUp(){
+        requestRepo = mock(RequestRepository.class);
+        index = new RequestSearchIndex(requestRepo);
+
+        index.index(new ListingDtos.SearchDocument(1L, "Red mountain bike", "Barely used, 21 gears", "Sports", "Ottawa"));
+        index.index(new ListingDtos.SearchDocument(2L, "Kids bicycle", "Looking for a small bike", "Sports", "Toronto"));
+        index.index(new ListingDtos.SearchDocument(3L, "Sofa", "Red leather sofa", "Furniture", "Ottawa"));
+    }
+
+    @Test
+    void search_isCaseInsensitiveAndRanksTitleAboveDescription(){
+        RequestSearchIndex.Hits hits = index.search("BIKE", 0, 10);
+
+        //"bike" is in the title of 1 but only in the description of 2
+        assertThat(hits.ids()).containsExactly(1L, 2L);
+        assertThat(hits.total()).isEqualTo(2);
+    }
+
+    @Test
+    void search_matchesPrefixes(){
+        assertThat(index.search("bic", 0, 10).ids()).containsExactly(2L);
+        assertThat(index.search("furn", 0, 10).ids()).containsExactly(3L);
+    }
+
+    @Test
+    void search_shortTermsOnlyMatchExactly(){
+        index.index(new ListingDtos.SearchDocument(4L, "TV stand", "for a 55 inch tv", "Furniture", "Ottawa"));
+
+        assertThat(index.search("bi", 0, 10).ids()).isEmpty();
+        assertThat(index.search("tv", 0, 10).ids()).containsExactly(4L);
+    }
+
+    @Test
+    void search_requiresEveryTerm(){
+        assertThat(index.search("red ottawa", 0, 10).ids()).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(index.search("red toronto", 0, 10).ids()).isEmpty();
+    }
+
+    @Test
+    void search_pagesOverRankedHits(){
+        RequestSearchIndex.Hits second = index.search("sports", 1, 1);
+
+        assertThat(second.ids()).hasSize(1);
+        assertThat(second.total()).isEqualTo(2);
+    }
+
+    @Test
+    void search_pagesMatchTheFullRanking(){
+        for(long id = 10; id < 60; id++){
+            //weight grows with the id: more mentions of "lamp" in the description
+            index.index(new ListingDtos.SearchDocument(id, "Item " + id, "lamp ".repeat((int) (id % 7) + 1), "Home", "Ottawa"));
+        }
+        List<Long> all = index.search("lamp", 0, 100).ids();
+
+        List<Long> paged = new ArrayList<>();
+        for(int page = 0; page < 6; page++){
+            paged.addAll(index.search("lamp", page, 9).ids());
+        }
+
+        assertThat(all).hasSize(50);
+        assertThat(paged).isEqualTo(all);
+        assertThat(index.search("lamp", 9, 9).ids()).isEmpty();
+    }
+
+    @Test
+    void reindexAndRemove_keepIndexCurrent(){
+        index.index(new ListingDtos.SearchDocument(3L, "Armchair", "Green velvet", "Furniture", "Ottawa"));
+        assertThat(index.search("sofa", 0, 10).ids()).isEmpty();
+        assertThat(index.search("armchair", 0, 10).ids()).containsExactly(3L);
+
+        index.remove(1L);
+        assertThat(index.search("mountain", 0, 10).ids()).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void rebuild_readsAllDocumentsFromRepository(){
+        when(requestRepo.findSearchDocumentsAfter(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(new ListingDtos.SearchDocument(10L, "Guitar", "Acoustic", "Music", "Halifax")));
+
+        RequestSearchIndex fresh = new RequestSearchIndex(requestRepo);
+        fresh.rebuild();
+
+        assertThat(fresh.search("acoustic", 0, 10).ids()).containsExactly(10L);
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.taka.services;
 
 import com.example.taka.dto.UserProfileDtos;
+import com.example.taka.models.UserProfile;
+import com.example.taka.models.UserRole;
 import com.example.taka.repos.UserProfileRepository;
+import com.example.taka.security.TokenVersionRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -9,14 +13,20 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 class UserProfileServiceTest {
     @Mock
     UserProfileRepository userRepo;
     @Mock
     PasswordEncoder encoder;
+    @Mock
+    TokenVersionRegistry tokenVersions;
     @InjectMocks UserProfileService userProfService;
 
     @BeforeEach
@@ -45,4 +55,43 @@ class UserProfileServiceTest {
 
 
 
+    @Test
+    void findByEmail_secondLookupServedFromCache(){
+        var cachedService = withRealCache();
+        var user = UserProfile.builder().id(1L).email("c@a.com").user_role(UserRole.USER).build();
+        when(userRepo.findByEmail("c@a.com")).thenReturn(Optional.of(user));
+
+        var first = cachedService.findByEmail("c@a.com");
+        var second = cachedService.findByEmail("c@a.com");
+        //the id index was filled by the email lookup
+        var byId = cachedService.findById(1L);
+
+        assertEquals("c@a.com", second.getEmail());
+        assertSame(first, second);
+        assertSame(first, byId);
+        verify(userRepo, times(1)).findByEmail("c@a.com");
+        verify(userRepo, never()).findById(any());
+    }
+
+    @Test
+    void update_evictsCachedUser(){
+        var cachedService = withRealCache();
+        var user = UserProfile.builder().id(2L).email("u@a.com").firstName("Old").user_role(UserRole.USER).build();
+        when(userRepo.findByEmail("u@a.com")).thenReturn(Optional.of(user));
+        when(userRepo.findById(2L)).thenReturn(Optional.of(user));
+        when(userRepo.save(any(UserProfile.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        cachedService.findByEmail("u@a.com");
+        var changes = UserProfile.builder().firstName("New").user_role(UserRole.USER).build();
+        cachedService.update(2L, changes);
+
+        assertEquals("New", cachedService.findByEmail("u@a.com").getFirstName());
+        verify(userRepo, times(2)).findByEmail("u@a.com");
+    }
+
+    private UserProfileService withRealCache(){
+        return new UserProfileService(userRepo, encoder, tokenVersions,
+                new UserProfileCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry()));
+    }
+
 }
\ No newline at end of file